@@ -0,0 +1,276 @@
+package Collections.Grafos;
+
+import Collections.Heaps.IndexedMinHeap;
+import Collections.ListasIterador.Classes.ArrayUnorderedList;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Distance and next-hop tables for every pair of vertices of an undirected
+ * network, built with one Dijkstra per vertex run in parallel on a
+ * ForkJoinPool. Afterwards distance queries are O(1) and path queries are
+ * O(path length).
+ *
+ * Row t of the tables holds the search rooted at t: since edges are
+ * undirected, the predecessor of s in that tree is the next hop from s
+ * towards t. The tables describe the network at build time: after an
+ * edge weight drops, edgeDecreased repairs them in place; any other change
+ * needs a new table.
+ */
+public class AllPairsShortestPaths<T> {
+    /**
+     * Largest vertex count whose V x V tables fit in Java arrays.
+     */
+    public static final int MAX_VERTICES = 46340;
+    private static final int ROWS_PER_TASK = 16;
+    private static final int ROWS_PER_REPAIR_TASK = 256;
+
+    protected final NetworkBiDirectional<T> network;
+    protected final int numVertices;
+    protected final float[] distance;
+    protected final int[] nextHop;
+    protected final ForkJoinPool pool;
+
+    public AllPairsShortestPaths(NetworkBiDirectional<T> network) {
+        this(network, ForkJoinPool.commonPool());
+    }
+
+    public AllPairsShortestPaths(NetworkBiDirectional<T> network, ForkJoinPool pool) {
+        if (network.indexBound() > MAX_VERTICES) {
+            throw new IllegalArgumentException("Too many vertices for an all-pairs table: " + network.indexBound());
+        }
+        this.network = network;
+        this.numVertices = network.indexBound();
+        this.distance = new float[numVertices * numVertices];
+        this.nextHop = new int[numVertices * numVertices];
+        this.pool = pool;
+        pool.invoke(new BuildRows(0, numVertices));
+    }
+
+    /**
+     * Bytes used by the tables of a network with the given vertex count.
+     */
+    public static long memoryFor(int vertices) {
+        return (long) vertices * vertices * (Float.BYTES + Integer.BYTES);
+    }
+
+    public int size() {
+        return numVertices;
+    }
+
+    public double distance(int fromIndex, int toIndex) {
+        return distance[toIndex * numVertices + fromIndex];
+    }
+
+    /**
+     * @return the vertex after fromIndex on a shortest path to toIndex, or
+     * -1 if toIndex is unreachable or equal to fromIndex
+     */
+    public int nextHop(int fromIndex, int toIndex) {
+        return nextHop[toIndex * numVertices + fromIndex];
+    }
+
+    public double distance(T from, T to) {
+        int fromIndex = network.getIndex(from);
+        int toIndex = network.getIndex(to);
+        if (!validIndex(fromIndex) || !validIndex(toIndex)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distance(fromIndex, toIndex);
+    }
+
+    /**
+     * Same contract as NetworkBiDirectional.iteratorShortestPath: empty if
+     * there is no path or both vertices are the same.
+     */
+    public Iterator<T> iteratorShortestPath(T from, T to) {
+        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
+        int index = network.getIndex(from);
+        int target = network.getIndex(to);
+        if (!validIndex(index) || !validIndex(target) || nextHop(index, target) == -1) {
+            return resultList.iterator();
+        }
+        resultList.addToRear(network.vertices[index]);
+        while (index != target) {
+            index = nextHop(index, target);
+            resultList.addToRear(network.vertices[index]);
+        }
+        return resultList.iterator();
+    }
+
+    /**
+     * Path read from the table with its edge weights, with the same
+     * contract as NetworkBiDirectional.shortestPath.
+     */
+    public PathResult<T> shortestPath(T from, T to) {
+        int index = network.getIndex(from);
+        int target = network.getIndex(to);
+        if (!validIndex(index) || !validIndex(target) || (nextHop(index, target) == -1 && index != target)) {
+            return PathResult.empty();
+        }
+        int length = 1;
+        for (int i = index; i != target; i = nextHop(i, target)) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = index;
+        for (int k = 1; k < length; k++) {
+            path[k] = nextHop(path[k - 1], target);
+        }
+        return PathResult.of(network, index, target, path);
+    }
+
+    private boolean validIndex(int index) {
+        return index >= 0 && index < numVertices;
+    }
+
+    /**
+     * Dijkstra rooted at one vertex, writing its table row. Distances are
+     * kept in double precision while searching and stored as float.
+     */
+    protected void buildRow(int root, IndexedMinHeap heap, double[] pathWeight, boolean[] settled) {
+        int offset = root * numVertices;
+        for (int i = 0; i < numVertices; i++) {
+            pathWeight[i] = Double.POSITIVE_INFINITY;
+            nextHop[offset + i] = -1;
+            settled[i] = false;
+        }
+        heap.clear();
+        pathWeight[root] = 0;
+        heap.insert(root, 0);
+
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            settled[index] = true;
+            for (int k = 0, n = network.neighborCount(index); k < n; k++) {
+                int i = network.neighborAt(index, k);
+                double w = network.neighborWeight(index, k);
+                if (!settled[i] && w < Double.POSITIVE_INFINITY && pathWeight[index] + w < pathWeight[i]) {
+                    pathWeight[i] = pathWeight[index] + w;
+                    nextHop[offset + i] = index;
+                    heap.insertOrDecrease(i, pathWeight[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < numVertices; i++) {
+            distance[offset + i] = (float) pathWeight[i];
+        }
+    }
+
+    /**
+     * Repairs every row after the edge between two vertices got the given
+     * (lower) weight, or was added with it. Each row only does work if the
+     * new edge shortens some of its paths, and then only on the vertices
+     * whose distance improves.
+     *
+     * @return the number of table entries that changed
+     */
+    public int edgeDecreased(int index1, int index2, double weight) {
+        return pool.invoke(new RepairRows(0, numVertices, index1, index2, weight));
+    }
+
+    private boolean improves(int offset, int vertex, int towards, double weight) {
+        return (float) (distance[offset + towards] + weight) < distance[offset + vertex];
+    }
+
+    private int repairRow(int root, IndexedMinHeap heap, int index1, int index2, double weight) {
+        int offset = root * numVertices;
+        heap.clear();
+        relax(offset, heap, index1, index2, weight);
+        relax(offset, heap, index2, index1, weight);
+
+        int changed = 0;
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            changed++;
+            for (int k = 0, n = network.neighborCount(index); k < n; k++) {
+                double w = network.neighborWeight(index, k);
+                if (w < Double.POSITIVE_INFINITY) {
+                    relax(offset, heap, network.neighborAt(index, k), index, w);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void relax(int offset, IndexedMinHeap heap, int vertex, int towards, double weight) {
+        if (improves(offset, vertex, towards, weight)) {
+            double candidate = distance[offset + towards] + weight;
+            distance[offset + vertex] = (float) candidate;
+            nextHop[offset + vertex] = towards;
+            heap.insertOrDecrease(vertex, candidate);
+        }
+    }
+
+    private class RepairRows extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int index1;
+        private final int index2;
+        private final double weight;
+
+        RepairRows(int from, int to, int index1, int index2, double weight) {
+            this.from = from;
+            this.to = to;
+            this.index1 = index1;
+            this.index2 = index2;
+            this.weight = weight;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= ROWS_PER_REPAIR_TASK) {
+                IndexedMinHeap heap = null;
+                int changed = 0;
+                for (int root = from; root < to; root++) {
+                    int offset = root * numVertices;
+                    if (improves(offset, index1, index2, weight) || improves(offset, index2, index1, weight)) {
+                        if (heap == null) {
+                            heap = new IndexedMinHeap(numVertices);
+                        }
+                        changed += repairRow(root, heap, index1, index2, weight);
+                    }
+                }
+                return changed;
+            }
+            int middle = (from + to) >>> 1;
+            RepairRows left = new RepairRows(from, middle, index1, index2, weight);
+            left.fork();
+            int right = new RepairRows(middle, to, index1, index2, weight).compute();
+            return left.join() + right;
+        }
+    }
+
+    private class BuildRows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        BuildRows(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                IndexedMinHeap heap = new IndexedMinHeap(numVertices);
+                double[] pathWeight = new double[numVertices];
+                boolean[] settled = new boolean[numVertices];
+                for (int root = from; root < to; root++) {
+                    buildRow(root, heap, pathWeight, settled);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BuildRows(from, middle), new BuildRows(middle, to));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package Collections.Grafos;
+
+/**
+ * Connected components of an undirected network, kept in a UnionFind over
+ * the vertex indices. Adding an edge merges two components on the spot;
+ * removing an edge or a vertex can split one, which union-find cannot
+ * undo, so the index is marked stale and rebuilt from the edges on the
+ * next query.
+ *
+ * Empty slots and the spare room at the end of the UnionFind are
+ * singleton sets that never get an edge, so they are left out by
+ * subtracting them from the set count.
+ */
+public class ConnectivityIndex {
+    protected final IndexedNetwork<?> network;
+    protected UnionFind sets;
+    protected int rebuilds;
+
+    public ConnectivityIndex(IndexedNetwork<?> network) {
+        this.network = network;
+    }
+
+    /**
+     * Called after an edge with a finite weight was added between two
+     * valid indices.
+     */
+    public void edgeAdded(int index1, int index2) {
+        if (sets == null) {
+            return;
+        }
+        int needed = Math.max(index1, index2) + 1;
+        if (needed > sets.size()) {
+            sets.grow(Math.max(needed, sets.size() * 2));
+        }
+        sets.union(index1, index2);
+    }
+
+    /**
+     * Called after an edge was removed or a vertex was removed or moved.
+     */
+    public void invalidate() {
+        sets = null;
+    }
+
+    /**
+     * Number of times the components were computed from scratch.
+     */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    private UnionFind sets() {
+        int bound = network.indexBound();
+        if (sets == null) {
+            sets = new UnionFind(bound);
+            for (int i = 0; i < bound; i++) {
+                if (!network.indexIsValid(i)) {
+                    continue;
+                }
+                for (int k = 0, n = network.neighborCount(i); k < n; k++) {
+                    int j = network.neighborAt(i, k);
+                    if (j > i && network.neighborWeight(i, k) < Double.POSITIVE_INFINITY) {
+                        sets.union(i, j);
+                    }
+                }
+            }
+            rebuilds++;
+        } else if (bound > sets.size()) {
+            sets.grow(Math.max(bound, sets.size() * 2));
+        }
+        return sets;
+    }
+
+    public boolean connected(int index1, int index2) {
+        if (!network.indexIsValid(index1) || !network.indexIsValid(index2)) {
+            return false;
+        }
+        return sets().connected(index1, index2);
+    }
+
+    /**
+     * @return an index that is the same for every vertex of the component
+     * of the given one, until the network changes, or -1 for an invalid
+     * index
+     */
+    public int componentOf(int index) {
+        if (!network.indexIsValid(index)) {
+            return -1;
+        }
+        return sets().find(index);
+    }
+
+    public int componentCount() {
+        UnionFind current = sets();
+        return current.setCount() - (current.size() - network.size());
+    }
+}
@@ -0,0 +1,70 @@
+package Collections.Grafos;
+
+/**
+ * Vertex slots left empty by removals in a graph with stable indices.
+ * Freed slots are kept on a stack and handed out again, most recently
+ * freed first, before the graph grows past its highest index.
+ */
+public class FreeSlots {
+    protected final int DEFAULT_CAPACITY = 10;
+    protected boolean[] free;
+    protected int[] stack;
+    protected int count;
+
+    public FreeSlots() {
+        this.free = new boolean[DEFAULT_CAPACITY];
+        this.stack = new int[DEFAULT_CAPACITY];
+        this.count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean isFree(int index) {
+        return index < free.length && free[index];
+    }
+
+    public void release(int index) {
+        if (isFree(index)) {
+            return;
+        }
+        if (index >= free.length || count == stack.length) {
+            expandCapacity(Math.max(index + 1, stack.length * 2));
+        }
+        free[index] = true;
+        stack[count++] = index;
+    }
+
+    /**
+     * @return a freed slot, which is no longer free, or -1 if there is none
+     */
+    public int acquire() {
+        if (count == 0) {
+            return -1;
+        }
+        int index = stack[--count];
+        free[index] = false;
+        return index;
+    }
+
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            free[stack[i]] = false;
+        }
+        count = 0;
+    }
+
+    protected void expandCapacity(int capacity) {
+        boolean[] largerFree = new boolean[Math.max(capacity, free.length)];
+        int[] largerStack = new int[Math.max(capacity, stack.length)];
+        System.arraycopy(free, 0, largerFree, 0, free.length);
+        System.arraycopy(stack, 0, largerStack, 0, count);
+        free = largerFree;
+        stack = largerStack;
+    }
+}
@@ -0,0 +1,276 @@
+package Collections.Grafos;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Breadth-first search over an IndexedAdjacency, level by level, with the
+ * visited set kept in a bitset (one bit per vertex).
+ *
+ * reachable() is a direction-optimizing search for connectivity checks
+ * (the iterators use TraversalIterator instead): levels are expanded
+ * top-down (frontier vertices look at their neighbors) while the frontier
+ * is small, and bottom-up (unvisited vertices look for a neighbor in the
+ * frontier) once it covers a large part of the graph. Large levels are
+ * split across a ForkJoinPool. Bottom-up steps are only used on undirected
+ * graphs, where every edge can be followed back.
+ */
+public class FrontierBFS {
+    /**
+     * Switch to bottom-up when the frontier is larger than the unvisited
+     * vertices divided by ALPHA, back to top-down when it is smaller than
+     * all vertices divided by BETA.
+     */
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int PARALLEL_THRESHOLD = 4096;
+    private static final int TOP_DOWN_CHUNK = 1024;
+    private static final int BOTTOM_UP_WORDS = 64;
+
+    private FrontierBFS() {
+    }
+
+    /**
+     * Number of vertices reachable from start, including start.
+     */
+    public static int reachableCount(IndexedAdjacency graph, int start) {
+        long[] bits = reachable(graph, start);
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Bitset of the vertices reachable from start.
+     */
+    public static long[] reachable(IndexedAdjacency graph, int start) {
+        return reachable(graph, start, ForkJoinPool.commonPool());
+    }
+
+    public static long[] reachable(IndexedAdjacency graph, int start, ForkJoinPool pool) {
+        int n = graph.indexBound();
+        int words = (n + 63) >>> 6;
+        AtomicLongArray visited = new AtomicLongArray(words);
+        if (start < 0 || start >= n) {
+            return new long[words];
+        }
+
+        int[] frontier = {start};
+        long[] frontierBits = null;
+        int frontierSize = 1;
+        int unvisited = n - 1;
+        claim(visited, start);
+
+        while (frontierSize > 0) {
+            boolean bottomUp = frontierBits != null;
+            if (!graph.isDirected()) {
+                if (!bottomUp && (long) frontierSize * ALPHA > unvisited) {
+                    bottomUp = true;
+                } else if (bottomUp && (long) frontierSize * BETA < n) {
+                    bottomUp = false;
+                }
+            }
+
+            if (bottomUp) {
+                if (frontierBits == null) {
+                    frontierBits = toBits(frontier, frontierSize, words);
+                }
+                long[] next = new long[words];
+                BottomUp step = new BottomUp(graph, visited, frontierBits, next, 0, words);
+                frontierSize = words <= BOTTOM_UP_WORDS || n < PARALLEL_THRESHOLD
+                        ? step.compute() : pool.invoke(step);
+                frontierBits = next;
+            } else {
+                if (frontierBits != null) {
+                    frontier = toList(frontierBits, frontierSize);
+                    frontierBits = null;
+                }
+                TopDown step = new TopDown(graph, visited, frontier, 0, frontierSize);
+                IntBuffer next = frontierSize < PARALLEL_THRESHOLD ? step.compute() : pool.invoke(step);
+                frontier = next.items;
+                frontierSize = next.size;
+            }
+            unvisited -= frontierSize;
+        }
+
+        long[] result = new long[words];
+        for (int w = 0; w < words; w++) {
+            result[w] = visited.get(w);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the bit of a vertex, returning false if it was already set.
+     */
+    private static boolean claim(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long old;
+        do {
+            old = bits.get(word);
+            if ((old & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, old, old | mask));
+        return true;
+    }
+
+    private static long[] toBits(int[] list, int size, int words) {
+        long[] bits = new long[words];
+        for (int i = 0; i < size; i++) {
+            bits[list[i] >>> 6] |= 1L << list[i];
+        }
+        return bits;
+    }
+
+    private static int[] toList(long[] bits, int size) {
+        int[] list = new int[size];
+        int count = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                list[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Growable int array returned by the top-down tasks.
+     */
+    private static class IntBuffer {
+        int[] items = new int[16];
+        int size = 0;
+
+        void add(int value) {
+            if (size == items.length) {
+                int[] larger = new int[items.length * 2];
+                System.arraycopy(items, 0, larger, 0, size);
+                items = larger;
+            }
+            items[size++] = value;
+        }
+
+        void addAll(IntBuffer other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.items[i]);
+            }
+        }
+    }
+
+    /**
+     * Expands a range of the frontier; vertices are claimed with a CAS so
+     * each one joins the next frontier once.
+     */
+    private static class TopDown extends RecursiveTask<IntBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final IndexedAdjacency graph;
+        private final AtomicLongArray visited;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+
+        TopDown(IndexedAdjacency graph, AtomicLongArray visited, int[] frontier, int from, int to) {
+            this.graph = graph;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntBuffer compute() {
+            if (to - from > TOP_DOWN_CHUNK && inForkJoinPool()) {
+                int middle = (from + to) >>> 1;
+                TopDown left = new TopDown(graph, visited, frontier, from, middle);
+                left.fork();
+                IntBuffer right = new TopDown(graph, visited, frontier, middle, to).compute();
+                IntBuffer result = left.join();
+                result.addAll(right);
+                return result;
+            }
+            IntBuffer next = new IntBuffer();
+            for (int f = from; f < to; f++) {
+                int current = frontier[f];
+                for (int k = 0, count = graph.neighborCount(current); k < count; k++) {
+                    if (graph.neighborWeight(current, k) < Double.POSITIVE_INFINITY) {
+                        int i = graph.neighborAt(current, k);
+                        if (claim(visited, i)) {
+                            next.add(i);
+                        }
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Checks the unvisited vertices of a range of bitset words. Each task
+     * owns whole words of the visited and next bitsets, so no atomic
+     * read-modify-write is needed.
+     */
+    private static class BottomUp extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final IndexedAdjacency graph;
+        private final AtomicLongArray visited;
+        private final long[] frontier;
+        private final long[] next;
+        private final int fromWord;
+        private final int toWord;
+
+        BottomUp(IndexedAdjacency graph, AtomicLongArray visited, long[] frontier, long[] next,
+                 int fromWord, int toWord) {
+            this.graph = graph;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.next = next;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toWord - fromWord > BOTTOM_UP_WORDS && inForkJoinPool()) {
+                int middle = (fromWord + toWord) >>> 1;
+                BottomUp left = new BottomUp(graph, visited, frontier, next, fromWord, middle);
+                left.fork();
+                int right = new BottomUp(graph, visited, frontier, next, middle, toWord).compute();
+                return left.join() + right;
+            }
+            int n = graph.indexBound();
+            int found = 0;
+            for (int w = fromWord; w < toWord; w++) {
+                long seen = visited.get(w);
+                long added = 0;
+                int end = Math.min(n, (w + 1) << 6);
+                for (int v = w << 6; v < end; v++) {
+                    if ((seen & (1L << v)) != 0) {
+                        continue;
+                    }
+                    for (int k = 0, count = graph.neighborCount(v); k < count; k++) {
+                        int i = graph.neighborAt(v, k);
+                        if ((frontier[i >>> 6] & (1L << i)) != 0
+                                && graph.neighborWeight(v, k) < Double.POSITIVE_INFINITY) {
+                            added |= 1L << v;
+                            break;
+                        }
+                    }
+                }
+                if (added != 0) {
+                    next[w] = added;
+                    visited.set(w, seen | added);
+                    found += Long.bitCount(added);
+                }
+            }
+            return found;
+        }
+    }
+}
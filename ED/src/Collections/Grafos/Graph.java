@@ -6,21 +6,81 @@ import Collections.Stacks.LinkedStack;
 
 import java.util.Iterator;
 
-public class Graph<T> implements GraphADT<T> {
+public class Graph<T> implements GraphADT<T>, IndexedAdjacency {
     protected final int DEFAULT_CAPACITY = 10;
     protected int numVertices;
     protected boolean[][] adjMatrix;
     protected T[] vertices;
+    protected VertexIndex<T> vertexIndex;
+
+    /**
+     * Bitset storage: row i holds bit j of word j / 64 set when i and j are
+     * adjacent, 64 cells per long instead of one per boolean.
+     */
+    protected boolean bitset;
+    protected long[][] adjBits;
 
     public Graph() {
+        this(false);
+    }
+
+    /**
+     * @param bitset true to store the adjacency matrix as long[] rows of
+     *               bits, so that shortest paths and connectivity expand
+     *               whole frontiers a word at a time; false for boolean[][]
+     */
+    public Graph(boolean bitset) {
         numVertices = 0;
-        this.adjMatrix = new boolean[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
+        this.bitset = bitset;
+        this.vertexIndex = new VertexIndex<>();
         this.vertices = (T[]) new Object[DEFAULT_CAPACITY];
+        if (bitset) {
+            this.adjBits = new long[DEFAULT_CAPACITY][words(DEFAULT_CAPACITY)];
+        } else {
+            this.adjMatrix = new boolean[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
+        }
+    }
+
+    public boolean isBitset() {
+        return bitset;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    protected boolean hasEdge(int index1, int index2) {
+        if (bitset) {
+            return (adjBits[index1][index2 >>> 6] & (1L << index2)) != 0;
+        }
+        return adjMatrix[index1][index2];
+    }
+
+    protected void setEdge(int index1, int index2, boolean adjacent) {
+        if (bitset) {
+            if (adjacent) {
+                adjBits[index1][index2 >>> 6] |= 1L << index2;
+            } else {
+                adjBits[index1][index2 >>> 6] &= ~(1L << index2);
+            }
+        } else {
+            adjMatrix[index1][index2] = adjacent;
+        }
     }
 
     //METODOS SUPORT
     public void expandCapacity() {
         T[] temp = (T[]) new Object[vertices.length * 2];
+        if (bitset) {
+            long[][] tempBits = new long[vertices.length * 2][words(vertices.length * 2)];
+            for (int i = 0; i < vertices.length; i++) {
+                temp[i] = vertices[i];
+                System.arraycopy(adjBits[i], 0, tempBits[i], 0, adjBits[i].length);
+            }
+            vertices = temp;
+            adjBits = tempBits;
+            return;
+        }
         boolean[][] tempMatrix = new boolean[vertices.length * 2][vertices.length * 2];
         for (int i = 0; i < vertices.length; i++) {
             temp[i] = vertices[i];
@@ -33,18 +93,38 @@ public class Graph<T> implements GraphADT<T> {
     }
 
     public int getIndex(T vertex) {
-        for (int i = 0; i < numVertices; i++) {
-            if (vertices[i].equals(vertex)) {
-                return i;
-            }
-        }
-        return -1;
+        return vertexIndex.get(vertex);
     }
 
     public boolean indexIsValid(int index) {
         return (index < numVertices && index >= 0);
     }
 
+    @Override
+    public int indexBound() {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborCount(int index) {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborAt(int index, int slot) {
+        return slot;
+    }
+
+    @Override
+    public double neighborWeight(int index, int slot) {
+        return hasEdge(index, slot) ? 1 : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
     @Override
     public void removeVertex (T vertex){
         int index = getIndex(vertex);
@@ -54,6 +134,19 @@ public class Graph<T> implements GraphADT<T> {
                 vertices[i] = vertices[i + 1];
             }
 
+            if (bitset) {
+                long[] removedRow = adjBits[index];
+                for (int i = index; i < numVertices - 1; i++) {
+                    adjBits[i] = adjBits[i + 1];
+                }
+                adjBits[numVertices - 1] = removedRow;
+                for (int i = 0; i < numVertices - 1; i++) {
+                    removeBit(adjBits[i], index);
+                }
+                numVertices--;
+                vertexIndex.removeShifted(vertex, index, vertices, numVertices);
+                return;
+            }
 
             for (int i = index; i < numVertices - 1; i++) {
                 for (int j = 0; j < numVertices; j++) {
@@ -67,10 +160,25 @@ public class Graph<T> implements GraphADT<T> {
             }
 
             numVertices--;
+            vertexIndex.removeShifted(vertex, index, vertices, numVertices);
         }
 
     }
 
+    /**
+     * Deletes bit index from a row, moving every following bit down one
+     * position, as removeVertex does with the columns of the matrix.
+     */
+    private static void removeBit(long[] row, int index) {
+        int w = index >>> 6;
+        long below = (1L << index) - 1;
+        row[w] = (row[w] & below) | ((row[w] >>> 1) & ~below);
+        for (int k = w + 1; k < row.length; k++) {
+            row[k - 1] |= row[k] << 63;
+            row[k] >>>= 1;
+        }
+    }
+
     @Override
     public void addEdge(T vertex1, T vertex2) {
         addEdge(getIndex(vertex1), getIndex(vertex2));
@@ -78,8 +186,8 @@ public class Graph<T> implements GraphADT<T> {
 
     public void addEdge(int vertex1, int vertex2) {
         if (indexIsValid(vertex1) && indexIsValid(vertex2)) {
-            adjMatrix[vertex1][vertex2] = true;
-            adjMatrix[vertex2][vertex1] = true;
+            setEdge(vertex1, vertex2, true);
+            setEdge(vertex2, vertex1, true);
         }
     }
 
@@ -89,9 +197,16 @@ public class Graph<T> implements GraphADT<T> {
             expandCapacity();
         }
         vertices[numVertices] = vertex;
+        vertexIndex.putIfAbsent(vertex, numVertices);
+        if (bitset) {
+            long[] row = adjBits[numVertices];
+            for (int w = 0; w < row.length; w++) {
+                row[w] = 0;
+            }
+        }
         for (int i = 0; i <= numVertices; i++) {
-            adjMatrix[numVertices][i] = false;
-            adjMatrix[i][numVertices] = false;
+            setEdge(numVertices, i, false);
+            setEdge(i, numVertices, false);
         }
         numVertices++;
     }
@@ -102,69 +217,18 @@ public class Graph<T> implements GraphADT<T> {
     }
     public void removeEdge(int vertex1, int vertex2) {
         if (indexIsValid(vertex1) && indexIsValid(vertex2)) {
-            adjMatrix[vertex1][vertex2] = false;
-            adjMatrix[vertex2][vertex1] = false;
+            setEdge(vertex1, vertex2, false);
+            setEdge(vertex2, vertex1, false);
         }
     }
     @Override
     public Iterator<T> iteratorBFS(T startVertex) {
-       Integer x;
-        LinkedQueue<Integer> traversalQueue = new LinkedQueue<Integer>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<T>();
-        if (!indexIsValid(getIndex(startVertex)))
-            return resultList.iterator();
-
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++)
-            visited[i] = false;
-        traversalQueue.enqueue(getIndex(startVertex));
-        visited[getIndex(startVertex)] = true;
-
-        while (!traversalQueue.isEmpty()) {
-            x = traversalQueue.dequeue();
-            resultList.addToRear(vertices[x]);
-            for (int i = 0; i < numVertices; i++) {
-                if (adjMatrix[x][i] && !visited[i]) {
-                    traversalQueue.enqueue(i);
-                    visited[i] = true;
-                }
-            }
-        }
-        return resultList.iterator();
+        return TraversalIterator.breadthFirst(this, vertices, getIndex(startVertex));
     }
 
     @Override
     public Iterator<T> iteratorDFS(T startVertex) {
-        Integer x;
-        boolean found;
-        LinkedStack<Integer> traversalStack = new LinkedStack<Integer>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<T>();
-        boolean[] visited = new boolean[numVertices];
-        if (!indexIsValid(getIndex(startVertex)))
-            return resultList.iterator();
-        for (int i = 0; i < numVertices; i++)
-            visited[i] = false;
-        traversalStack.push(getIndex(startVertex));
-        resultList.addToRear(vertices[getIndex(startVertex)]);
-        visited[getIndex(startVertex)] = true;
-
-        while (!traversalStack.isEmpty()) {
-            x = traversalStack.peek();
-            found = false;
-            /** Find a vertex adjacent to x that has not been visited
-             * and push it on the stack */
-            for (int i = 0; (i < numVertices) && !found; i++) {
-                if (adjMatrix[x][i] && !visited[i]) {
-                    traversalStack.push(i);
-                    resultList.addToRear(vertices[i]);
-                    visited[i] = true;
-                    found = true;
-                }
-            }
-            if (!found && !traversalStack.isEmpty())
-                traversalStack.pop();
-        }
-        return resultList.iterator();
+        return TraversalIterator.depthFirst(this, vertices, getIndex(startVertex));
     }
 
     @Override
@@ -179,6 +243,9 @@ public class Graph<T> implements GraphADT<T> {
 
         if (!indexIsValid(getIndex(startVertex)) || !indexIsValid(getIndex(targetVertex)))
             return resultList.iterator();
+        if (bitset) {
+            return bitsetShortestPath(getIndex(startVertex), getIndex(targetVertex));
+        }
         for (i = 0; i < numVertices; i++) {
             visited[i] = false;
             pathLength[i] = -1;
@@ -221,6 +288,98 @@ public class Graph<T> implements GraphADT<T> {
         return resultList.iterator();
     }
 
+    /**
+     * Breadth-first search on the bitset rows, one level at a time: the
+     * next level is the union of the rows of the frontier minus the
+     * visited set, computed with word-wide OR and AND NOT. Stops once
+     * target is reached (-1 to search everything).
+     *
+     * @param pathLength filled with the level of every visited vertex,
+     *                   or null if only the visited set is needed
+     * @return the visited set
+     */
+    protected long[] bitsetLevels(int start, int target, int[] pathLength) {
+        int words = words(numVertices);
+        long[] visited = new long[words];
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        visited[start >>> 6] |= 1L << start;
+        frontier[start >>> 6] |= 1L << start;
+        if (pathLength != null) {
+            pathLength[start] = 0;
+        }
+
+        boolean grew = true;
+        for (int level = 1; grew && (target == -1 || (visited[target >>> 6] & (1L << target)) == 0); level++) {
+            for (int w = 0; w < words; w++) {
+                next[w] = 0;
+            }
+            for (int w = 0; w < words; w++) {
+                long word = frontier[w];
+                while (word != 0) {
+                    long[] row = adjBits[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    for (int k = 0; k < words; k++) {
+                        next[k] |= row[k];
+                    }
+                    word &= word - 1;
+                }
+            }
+            grew = false;
+            for (int w = 0; w < words; w++) {
+                long added = next[w] & ~visited[w];
+                visited[w] |= added;
+                next[w] = added;
+                if (added != 0) {
+                    grew = true;
+                    if (pathLength != null) {
+                        for (long bits = added; bits != 0; bits &= bits - 1) {
+                            pathLength[(w << 6) + Long.numberOfTrailingZeros(bits)] = level;
+                        }
+                    }
+                }
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return visited;
+    }
+
+    /**
+     * Shortest path in bitset mode. Walks back from the target taking, at
+     * each level, the lowest-index neighbor one level closer, the same
+     * choice as the boolean matrix search.
+     */
+    private Iterator<T> bitsetShortestPath(int start, int target) {
+        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<T>();
+        int[] pathLength = new int[numVertices];
+        long[] visited = bitsetLevels(start, target, pathLength);
+        if ((visited[target >>> 6] & (1L << target)) == 0) {
+            return resultList.iterator();
+        }
+
+        LinkedStack<T> stack = new LinkedStack<T>();
+        int index = target;
+        stack.push(vertices[index]);
+        for (int level = pathLength[target] - 1; level >= 0; level--) {
+            long[] row = adjBits[index];
+            int previous = -1;
+            for (int w = 0; w < row.length && previous == -1; w++) {
+                for (long bits = row[w] & visited[w]; bits != 0 && previous == -1; bits &= bits - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if (pathLength[j] == level) {
+                        previous = j;
+                    }
+                }
+            }
+            index = previous;
+            stack.push(vertices[index]);
+        }
+        while (!stack.isEmpty())
+            resultList.addToRear(stack.pop());
+        return resultList.iterator();
+    }
+
     @Override
     public boolean isEmpty() {
         return (numVertices== 0);
@@ -228,16 +387,17 @@ public class Graph<T> implements GraphADT<T> {
 
     @Override
     public boolean isConnected() {
-        if(isEmpty()){
+        if (isEmpty()) {
             return false;
         }
-        Iterator<T> it = iteratorBFS(vertices[0]);
-        int count = 0;
-        while(it.hasNext()){
-            it.next();
-            count++;
+        if (bitset) {
+            int count = 0;
+            for (long word : bitsetLevels(0, -1, null)) {
+                count += Long.bitCount(word);
+            }
+            return count == numVertices;
         }
-        return (count == numVertices);
+        return FrontierBFS.reachableCount(this, 0) == numVertices;
     }
 
     @Override
@@ -268,7 +428,7 @@ public class Graph<T> implements GraphADT<T> {
             result += "" + i + "\t";
 
             for (int j = 0; j < numVertices; j++) {
-                if (adjMatrix[i][j]) {
+                if (hasEdge(i, j)) {
                     result += "1 ";
                 } else {
                     result += "0 ";
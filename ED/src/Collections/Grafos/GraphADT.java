@@ -15,4 +15,31 @@ public interface GraphADT<T> {
     int size();
     String toString();
 
+    /**
+     * Visits the vertices reachable from startVertex in breadth-first
+     * order until the visitor returns false.
+     *
+     * @return the vertex the visitor stopped at, or null if it saw every
+     * reachable vertex
+     */
+    default T traverseBFS(T startVertex, GraphVisitor<T> visitor) {
+        return traverse(iteratorBFS(startVertex), visitor);
+    }
+
+    /**
+     * Same as traverseBFS, in depth-first order.
+     */
+    default T traverseDFS(T startVertex, GraphVisitor<T> visitor) {
+        return traverse(iteratorDFS(startVertex), visitor);
+    }
+
+    private static <T> T traverse(Iterator<T> it, GraphVisitor<T> visitor) {
+        while (it.hasNext()) {
+            T vertex = it.next();
+            if (!visitor.visit(vertex)) {
+                return vertex;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,424 @@
+package Collections.Grafos;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Benchmarks of the network classes on generated mazes: grid, random
+ * geometric and tree-like, from 10 to 100k vertices. For every shape, size
+ * and network it measures bulk loading, BFS, DFS, shortest path (iterator
+ * and weight), isConnected and mstNetwork, and prints throughput, average
+ * latency and bytes allocated per operation.
+ *
+ * Each measurement runs the operation in a loop for a warmup period and
+ * then for a measured period, feeding every result into a sink so the JIT
+ * cannot drop the work. Allocation is read from the per-thread allocated
+ * bytes counter of the JVM.
+ *
+ * Arguments, all optional:
+ * <pre>
+ * sizes=10,100,1000,10000,100000
+ * shapes=grid,geometric,tree
+ * networks=NetworkBi,NetworkUni,NetworkUniDirectional,NetworkBiDirectional,NetworkBiDirectional-sparse
+ * benchmarks=load,bfs,dfs,path,weight,connected,mst
+ * warmup=100 measure=300          (milliseconds per benchmark)
+ * </pre>
+ * Adjacency matrices take V^2 doubles, so the dense networks are skipped
+ * above DENSE_LIMIT vertices.
+ */
+public class GraphBenchmark {
+    public static final int DENSE_LIMIT = 4096;
+    private static final long SEED = 42;
+    private static final int QUERIES = 256;
+
+    private static final String[] ALL_NETWORKS = {"NetworkBi", "NetworkUni", "NetworkUniDirectional",
+            "NetworkBiDirectional", "NetworkBiDirectional-sparse"};
+    private static final String[] ALL_SHAPES = {"grid", "geometric", "tree"};
+    private static final String[] ALL_BENCHMARKS = {"load", "bfs", "dfs", "path", "weight", "connected", "mst"};
+    private static final int[] ALL_SIZES = {10, 100, 1000, 10000, 100000};
+
+    private static long sink;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long warmupNanos;
+    private final long measureNanos;
+
+    public GraphBenchmark(long warmupMillis, long measureMillis) {
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.warmupNanos = warmupMillis * 1_000_000;
+        this.measureNanos = measureMillis * 1_000_000;
+    }
+
+    /**
+     * Edge list of a generated maze.
+     */
+    public static class Maze {
+        final String shape;
+        final int vertices;
+        int edges;
+        int[] from;
+        int[] to;
+        double[] weight;
+
+        Maze(String shape, int vertices) {
+            this.shape = shape;
+            this.vertices = vertices;
+            this.from = new int[16];
+            this.to = new int[16];
+            this.weight = new double[16];
+        }
+
+        void add(int a, int b, double w) {
+            if (edges == from.length) {
+                int[] largerFrom = new int[edges * 2];
+                int[] largerTo = new int[edges * 2];
+                double[] largerWeight = new double[edges * 2];
+                System.arraycopy(from, 0, largerFrom, 0, edges);
+                System.arraycopy(to, 0, largerTo, 0, edges);
+                System.arraycopy(weight, 0, largerWeight, 0, edges);
+                from = largerFrom;
+                to = largerTo;
+                weight = largerWeight;
+            }
+            from[edges] = a;
+            to[edges] = b;
+            weight[edges] = w;
+            edges++;
+        }
+    }
+
+    /**
+     * Vertices in rows of ceil(sqrt(n)), each joined to its right and lower
+     * neighbors, with weights 1 to 9.
+     */
+    public static Maze grid(int n, Random random) {
+        Maze maze = new Maze("grid", n);
+        int side = (int) Math.ceil(Math.sqrt(n));
+        for (int v = 0; v < n; v++) {
+            if ((v + 1) % side != 0 && v + 1 < n) {
+                maze.add(v, v + 1, 1 + random.nextInt(9));
+            }
+            if (v + side < n) {
+                maze.add(v, v + side, 1 + random.nextInt(9));
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * Points in the unit square joined when closer than a radius chosen to
+     * give about 2 ln n neighbors each (almost surely connected); the
+     * weight is the distance. Points are bucketed in cells of that radius.
+     */
+    public static Maze geometric(int n, Random random) {
+        Maze maze = new Maze("geometric", n);
+        double radius = Math.min(1, Math.sqrt(2 * Math.log(Math.max(n, 2)) / (Math.PI * n)));
+        int cells = Math.max(1, (int) (1 / radius));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+            cellOf[v] = Math.min(cells - 1, (int) (y[v] * cells)) * cells + Math.min(cells - 1, (int) (x[v] * cells));
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] byCell = new int[n];
+        int[] fill = new int[cells * cells];
+        for (int v = 0; v < n; v++) {
+            byCell[cellStart[cellOf[v]] + fill[cellOf[v]]++] = v;
+        }
+
+        for (int v = 0; v < n; v++) {
+            int cx = cellOf[v] % cells;
+            int cy = cellOf[v] / cells;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = cx + dx;
+                    int ny = cy + dy;
+                    if (nx < 0 || ny < 0 || nx >= cells || ny >= cells) {
+                        continue;
+                    }
+                    int c = ny * cells + nx;
+                    for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                        int u = byCell[k];
+                        double distance = Math.hypot(x[u] - x[v], y[u] - y[v]);
+                        if (u > v && distance <= radius) {
+                            maze.add(v, u, distance);
+                        }
+                    }
+                }
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * Random spanning tree where each vertex hangs from one of the 16
+     * vertices before it, giving long winding corridors, plus n/20 extra
+     * edges that close a few loops.
+     */
+    public static Maze tree(int n, Random random) {
+        Maze maze = new Maze("tree", n);
+        for (int v = 1; v < n; v++) {
+            int parent = Math.max(0, v - 1 - random.nextInt(16));
+            maze.add(parent, v, 1 + random.nextInt(9));
+        }
+        for (int e = 0; e < n / 20; e++) {
+            maze.add(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(9));
+        }
+        return maze;
+    }
+
+    public static Maze maze(String shape, int n) {
+        Random random = new Random(SEED + n);
+        switch (shape) {
+            case "grid":
+                return grid(n, random);
+            case "geometric":
+                return geometric(n, random);
+            case "tree":
+                return tree(n, random);
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    public static boolean isDense(String network) {
+        return !network.endsWith("-sparse");
+    }
+
+    public static IndexedNetwork<Integer> newNetwork(String network) {
+        switch (network) {
+            case "NetworkBi":
+                return new NetworkBi<>();
+            case "NetworkUni":
+                return new NetworkUni<>();
+            case "NetworkUniDirectional":
+                return new NetworkUniDirectional<>();
+            case "NetworkBiDirectional":
+                return new NetworkBiDirectional<>(false);
+            case "NetworkBiDirectional-sparse":
+                return new NetworkBiDirectional<>(true);
+            default:
+                throw new IllegalArgumentException("Unknown network: " + network);
+        }
+    }
+
+    /**
+     * Adds the maze to a new network. Directed networks get both arcs of
+     * every edge, so all networks hold the same graph.
+     */
+    public static IndexedNetwork<Integer> load(String network, Maze maze) {
+        IndexedNetwork<Integer> result = newNetwork(network);
+        Integer[] vertices = new Integer[maze.vertices];
+        for (int v = 0; v < maze.vertices; v++) {
+            vertices[v] = v;
+            result.addVertex(vertices[v]);
+        }
+        boolean directed = result.isDirected();
+        for (int e = 0; e < maze.edges; e++) {
+            result.addEdge(vertices[maze.from[e]], vertices[maze.to[e]], maze.weight[e]);
+            if (directed) {
+                result.addEdge(vertices[maze.to[e]], vertices[maze.from[e]], maze.weight[e]);
+            }
+        }
+        return result;
+    }
+
+    private static Object mstNetwork(IndexedNetwork<Integer> network) {
+        if (network instanceof NetworkBi) {
+            return ((NetworkBi<Integer>) network).mstNetwork();
+        }
+        if (network instanceof NetworkUni) {
+            return ((NetworkUni<Integer>) network).mstNetwork();
+        }
+        if (network instanceof NetworkUniDirectional) {
+            return ((NetworkUniDirectional<Integer>) network).mstNetwork();
+        }
+        return ((NetworkBiDirectional<Integer>) network).mstNetwork();
+    }
+
+    private static long consume(Iterator<Integer> it) {
+        long count = 0;
+        while (it.hasNext()) {
+            count += it.next();
+        }
+        return count;
+    }
+
+    /**
+     * Result of one measurement.
+     */
+    public static class Result {
+        final long operations;
+        final long nanos;
+        final long bytes;
+
+        Result(long operations, long nanos, long bytes) {
+            this.operations = operations;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        public double opsPerSecond() {
+            return operations * 1e9 / nanos;
+        }
+
+        public double microsPerOp() {
+            return nanos / 1e3 / operations;
+        }
+
+        public double bytesPerOp() {
+            return (double) bytes / operations;
+        }
+
+        public double megabytesPerSecond() {
+            return bytes / 1e6 / (nanos / 1e9);
+        }
+    }
+
+    /**
+     * One benchmarked operation; op is the number of the call, used to
+     * rotate through the query vertices.
+     */
+    private interface Operation {
+        long run(int op);
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private Result measure(Operation operation) {
+        long end = System.nanoTime() + warmupNanos;
+        int op = 0;
+        while (System.nanoTime() < end || op == 0) {
+            sink += operation.run(op++);
+        }
+
+        long operations = 0;
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long now;
+        do {
+            sink += operation.run(op++);
+            operations++;
+            now = System.nanoTime();
+        } while (now - start < measureNanos);
+        long bytes = allocatedBytes() - bytesBefore;
+        return new Result(operations, now - start, bytes);
+    }
+
+    /**
+     * Runs one benchmark on a loaded network.
+     */
+    public Result run(String benchmark, String networkName, Maze maze, IndexedNetwork<Integer> network) {
+        Random random = new Random(SEED);
+        Integer[] starts = new Integer[QUERIES];
+        Integer[] targets = new Integer[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            starts[q] = random.nextInt(maze.vertices);
+            targets[q] = random.nextInt(maze.vertices);
+        }
+        int mask = QUERIES - 1;
+
+        switch (benchmark) {
+            case "load":
+                return measure(op -> load(networkName, maze).size());
+            case "bfs":
+                return measure(op -> consume(network.iteratorBFS(starts[op & mask])));
+            case "dfs":
+                return measure(op -> consume(network.iteratorDFS(starts[op & mask])));
+            case "path":
+                return measure(op -> consume(network.iteratorShortestPath(starts[op & mask], targets[op & mask])));
+            case "weight":
+                return measure(op -> (long) network.shortestPathWeight(starts[op & mask], targets[op & mask]));
+            case "connected":
+                return measure(op -> network.isConnected() ? 1 : 0);
+            case "mst":
+                return measure(op -> mstNetwork(network).hashCode());
+            default:
+                throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
+        }
+    }
+
+    private static String[] list(String value) {
+        return value.split(",");
+    }
+
+    public static void main(String[] args) {
+        String[] networks = ALL_NETWORKS;
+        String[] shapes = ALL_SHAPES;
+        String[] benchmarks = ALL_BENCHMARKS;
+        int[] sizes = ALL_SIZES;
+        long warmup = 100;
+        long measure = 300;
+
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals == -1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, equals);
+            String value = arg.substring(equals + 1);
+            switch (key) {
+                case "networks":
+                    networks = list(value);
+                    break;
+                case "shapes":
+                    shapes = list(value);
+                    break;
+                case "benchmarks":
+                    benchmarks = list(value);
+                    break;
+                case "sizes":
+                    String[] parts = list(value);
+                    sizes = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        sizes[i] = Integer.parseInt(parts[i].trim());
+                    }
+                    break;
+                case "warmup":
+                    warmup = Long.parseLong(value);
+                    break;
+                case "measure":
+                    measure = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+
+        GraphBenchmark bench = new GraphBenchmark(warmup, measure);
+        System.out.printf("%-10s %7s %-28s %-10s %14s %14s %14s %10s%n",
+                "shape", "size", "network", "benchmark", "ops/s", "us/op", "B/op", "MB/s");
+        for (String shape : shapes) {
+            for (int size : sizes) {
+                Maze maze = maze(shape, size);
+                for (String networkName : networks) {
+                    if (isDense(networkName) && size > DENSE_LIMIT) {
+                        System.out.printf("%-10s %7d %-28s skipped (adjacency matrix above %d vertices)%n",
+                                shape, size, networkName, DENSE_LIMIT);
+                        continue;
+                    }
+                    IndexedNetwork<Integer> network = load(networkName, maze);
+                    for (String benchmark : benchmarks) {
+                        Result r = bench.run(benchmark, networkName, maze, network);
+                        System.out.printf("%-10s %7d %-28s %-10s %14.1f %14.3f %14.1f %10.1f%n",
+                                shape, size, networkName, benchmark,
+                                r.opsPerSecond(), r.microsPerOp(), r.bytesPerOp(), r.megabytesPerSecond());
+                    }
+                }
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+}
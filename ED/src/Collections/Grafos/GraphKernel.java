@@ -0,0 +1,392 @@
+package Collections.Grafos;
+
+import Collections.Heaps.IndexedMinHeap;
+import Collections.ListasIterador.Classes.ArrayUnorderedList;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shortest path searches over the IndexedAdjacency of a network, shared by
+ * every network class so they all get the same algorithms and speed:
+ * bidirectional Dijkstra on undirected graphs, one-sided Dijkstra on
+ * directed ones, and A* when a heuristic is given.
+ *
+ * The per-vertex arrays of a search are kept between queries and marked
+ * with a generation number instead of being cleared, so a query only
+ * touches the vertices it reaches. A query that runs while another one
+ * holds the arrays gets arrays of its own, so concurrent read-only queries
+ * stay safe.
+ */
+public class GraphKernel {
+    private static final int[] NO_PATH = new int[0];
+
+    protected final IndexedAdjacency graph;
+    private final AtomicReference<Workspace> spare = new AtomicReference<>();
+    private volatile int lastExpandedCount;
+
+    public GraphKernel(IndexedAdjacency graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Number of vertices removed from the heap by the last search.
+     */
+    public int getLastExpandedCount() {
+        return lastExpandedCount;
+    }
+
+    /**
+     * Per-vertex search state. An entry of a stamped array is only
+     * meaningful when its stamp equals the current generation.
+     */
+    private static class Workspace {
+        int generation;
+        int[] forwardStamp;
+        double[] forwardWeight;
+        int[] predecessor;
+        int[] backwardStamp;
+        double[] backwardWeight;
+        int[] successor;
+        int[] estimateStamp;
+        double[] estimate;
+        IndexedMinHeap forwardHeap;
+        IndexedMinHeap backwardHeap;
+
+        Workspace(int size) {
+            forwardStamp = new int[size];
+            forwardWeight = new double[size];
+            predecessor = new int[size];
+            forwardHeap = new IndexedMinHeap(size);
+        }
+
+        int size() {
+            return forwardStamp.length;
+        }
+
+        void start() {
+            if (generation == Integer.MAX_VALUE) {
+                generation = 0;
+                clearStamps(forwardStamp);
+                clearStamps(backwardStamp);
+                clearStamps(estimateStamp);
+            }
+            generation++;
+            forwardHeap.clear();
+            if (backwardHeap != null) {
+                backwardHeap.clear();
+            }
+        }
+
+        private static void clearStamps(int[] stamps) {
+            if (stamps != null) {
+                for (int i = 0; i < stamps.length; i++) {
+                    stamps[i] = 0;
+                }
+            }
+        }
+
+        void withBackward() {
+            if (backwardStamp == null) {
+                int size = size();
+                backwardStamp = new int[size];
+                backwardWeight = new double[size];
+                successor = new int[size];
+                backwardHeap = new IndexedMinHeap(size);
+            }
+        }
+
+        void withEstimates() {
+            if (estimateStamp == null) {
+                estimateStamp = new int[size()];
+                estimate = new double[size()];
+            }
+        }
+
+        double forward(int index) {
+            return forwardStamp[index] == generation ? forwardWeight[index] : Double.POSITIVE_INFINITY;
+        }
+
+        double backward(int index) {
+            return backwardStamp[index] == generation ? backwardWeight[index] : Double.POSITIVE_INFINITY;
+        }
+
+        void setForward(int index, double weight, int previous) {
+            forwardStamp[index] = generation;
+            forwardWeight[index] = weight;
+            predecessor[index] = previous;
+        }
+
+        void setBackward(int index, double weight, int next) {
+            backwardStamp[index] = generation;
+            backwardWeight[index] = weight;
+            successor[index] = next;
+        }
+    }
+
+    private Workspace acquire() {
+        Workspace workspace = spare.getAndSet(null);
+        int size = graph.indexBound();
+        if (workspace == null || workspace.size() < size) {
+            workspace = new Workspace(size);
+        }
+        workspace.start();
+        return workspace;
+    }
+
+    private void release(Workspace workspace) {
+        spare.set(workspace);
+    }
+
+    private boolean valid(int index) {
+        return index >= 0 && index < graph.indexBound();
+    }
+
+    /**
+     * Indices of a shortest path from start to target, both included.
+     *
+     * @return an empty array if either index is out of range, they are the
+     * same, or the target is unreachable
+     */
+    public int[] shortestPath(int startIndex, int targetIndex) {
+        if (!valid(startIndex) || !valid(targetIndex) || startIndex == targetIndex) {
+            return NO_PATH;
+        }
+        Workspace workspace = acquire();
+        try {
+            if (graph.isDirected()) {
+                return search(workspace, startIndex, targetIndex, null) ? forwardPath(workspace, targetIndex) : NO_PATH;
+            }
+            int meeting = bidirectionalSearch(workspace, startIndex, targetIndex);
+            return meeting == -1 ? NO_PATH : meetingPath(workspace, meeting);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Same as shortestPath, with an A* search guided by the heuristic.
+     */
+    public int[] shortestPath(int startIndex, int targetIndex, IndexedHeuristic<?> heuristic) {
+        if (!valid(startIndex) || !valid(targetIndex) || startIndex == targetIndex) {
+            return NO_PATH;
+        }
+        Workspace workspace = acquire();
+        try {
+            return search(workspace, startIndex, targetIndex, heuristic) ? forwardPath(workspace, targetIndex) : NO_PATH;
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * @return the weight of a shortest path, 0 from a vertex to itself and
+     * infinity if the target is unreachable or an index is out of range
+     */
+    public double shortestPathWeight(int startIndex, int targetIndex) {
+        if (!valid(startIndex) || !valid(targetIndex)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (startIndex == targetIndex) {
+            return 0;
+        }
+        Workspace workspace = acquire();
+        try {
+            if (graph.isDirected()) {
+                search(workspace, startIndex, targetIndex, null);
+                return workspace.forward(targetIndex);
+            }
+            int meeting = bidirectionalSearch(workspace, startIndex, targetIndex);
+            return meeting == -1 ? Double.POSITIVE_INFINITY
+                    : workspace.forward(meeting) + workspace.backward(meeting);
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Dijkstra from startIndex into caller-owned arrays, for structures
+     * that keep the whole tree. Stops as soon as the target is settled; a
+     * target of -1 settles every reachable vertex.
+     *
+     * @param pathWeight  filled with the distance of each vertex from the
+     *                    start (infinity if unreached)
+     * @param predecessor filled with the previous vertex on each shortest
+     *                    path (-1 for the start and unreached vertices)
+     * @return true if the target was reached
+     */
+    public boolean dijkstra(int startIndex, int targetIndex, double[] pathWeight, int[] predecessor) {
+        Workspace workspace = acquire();
+        try {
+            boolean found = search(workspace, startIndex, targetIndex, null);
+            for (int i = 0, n = graph.indexBound(); i < n; i++) {
+                pathWeight[i] = workspace.forward(i);
+                predecessor[i] = pathWeight[i] < Double.POSITIVE_INFINITY ? workspace.predecessor[i] : -1;
+            }
+            return found;
+        } finally {
+            release(workspace);
+        }
+    }
+
+    /**
+     * Best-first search shared by Dijkstra (no heuristic) and A*. The heap
+     * is ordered by path weight plus the heuristic estimate to the target.
+     * A vertex whose weight still improves after being expanded is opened
+     * again, so admissible heuristics that are not consistent stay correct.
+     */
+    private boolean search(Workspace workspace, int startIndex, int targetIndex, IndexedHeuristic<?> heuristic) {
+        boolean useHeuristic = heuristic != null && targetIndex != -1;
+        if (useHeuristic) {
+            workspace.withEstimates();
+        }
+        IndexedMinHeap heap = workspace.forwardHeap;
+        int generation = workspace.generation;
+        int expanded = 0;
+
+        workspace.setForward(startIndex, 0, -1);
+        heap.insert(startIndex, 0);
+
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            expanded++;
+            if (index == targetIndex) {
+                lastExpandedCount = expanded;
+                return true;
+            }
+
+            double base = workspace.forwardWeight[index];
+            for (int k = 0, n = graph.neighborCount(index); k < n; k++) {
+                double w = graph.neighborWeight(index, k);
+                if (w == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int i = graph.neighborAt(index, k);
+                double candidate = base + w;
+                if (candidate < workspace.forward(i)) {
+                    workspace.setForward(i, candidate, index);
+                    double key = candidate;
+                    if (useHeuristic) {
+                        if (workspace.estimateStamp[i] != generation) {
+                            workspace.estimate[i] = heuristic.estimateIndex(i, targetIndex);
+                            workspace.estimateStamp[i] = generation;
+                        }
+                        key += workspace.estimate[i];
+                    }
+                    heap.insertOrDecrease(i, key);
+                }
+            }
+        }
+        lastExpandedCount = expanded;
+        return targetIndex == -1;
+    }
+
+    /**
+     * Dijkstra run from both ends at once: a forward search from the start
+     * and a backward one from the target (edges are undirected, so both
+     * read the same neighbor lists). Each step expands the side with the
+     * smaller heap. The best path seen so far goes through the vertex
+     * with the lowest forward + backward weight, and the search stops as
+     * soon as the two heap minimums add up to at least that weight, since
+     * no path found later could be shorter.
+     *
+     * @return the vertex where the shortest path crosses from the forward
+     * to the backward search, or -1 if the target is unreachable
+     */
+    private int bidirectionalSearch(Workspace workspace, int startIndex, int targetIndex) {
+        workspace.withBackward();
+        IndexedMinHeap forwardHeap = workspace.forwardHeap;
+        IndexedMinHeap backwardHeap = workspace.backwardHeap;
+        int expanded = 0;
+
+        workspace.setForward(startIndex, 0, -1);
+        workspace.setBackward(targetIndex, 0, -1);
+        forwardHeap.insert(startIndex, 0);
+        backwardHeap.insert(targetIndex, 0);
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && forwardHeap.minKey() + backwardHeap.minKey() < best) {
+            boolean forward = forwardHeap.size() <= backwardHeap.size();
+            IndexedMinHeap heap = forward ? forwardHeap : backwardHeap;
+
+            int index = heap.removeMin();
+            expanded++;
+            double base = forward ? workspace.forwardWeight[index] : workspace.backwardWeight[index];
+            for (int k = 0, n = graph.neighborCount(index); k < n; k++) {
+                double w = graph.neighborWeight(index, k);
+                if (w == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int i = graph.neighborAt(index, k);
+                double candidate = base + w;
+                double other;
+                if (forward) {
+                    if (candidate >= workspace.forward(i)) {
+                        continue;
+                    }
+                    workspace.setForward(i, candidate, index);
+                    other = workspace.backward(i);
+                } else {
+                    if (candidate >= workspace.backward(i)) {
+                        continue;
+                    }
+                    workspace.setBackward(i, candidate, index);
+                    other = workspace.forward(i);
+                }
+                heap.insertOrDecrease(i, candidate);
+                if (candidate + other < best) {
+                    best = candidate + other;
+                    meeting = i;
+                }
+            }
+        }
+        lastExpandedCount = expanded;
+        return meeting;
+    }
+
+    /**
+     * The vertices of a path of indices, in order.
+     */
+    static <T> Iterator<T> pathIterator(int[] path, T[] vertices) {
+        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
+        for (int index : path) {
+            resultList.addToRear(vertices[index]);
+        }
+        return resultList.iterator();
+    }
+
+    private static int[] forwardPath(Workspace workspace, int targetIndex) {
+        int length = 0;
+        for (int index = targetIndex; index != -1; index = workspace.predecessor[index]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int index = targetIndex; index != -1; index = workspace.predecessor[index]) {
+            path[--length] = index;
+        }
+        return path;
+    }
+
+    private static int[] meetingPath(Workspace workspace, int meeting) {
+        int before = 0;
+        for (int index = meeting; index != -1; index = workspace.predecessor[index]) {
+            before++;
+        }
+        int after = 0;
+        for (int index = workspace.successor[meeting]; index != -1; index = workspace.successor[index]) {
+            after++;
+        }
+        int[] path = new int[before + after];
+        int position = before;
+        for (int index = meeting; index != -1; index = workspace.predecessor[index]) {
+            path[--position] = index;
+        }
+        position = before;
+        for (int index = workspace.successor[meeting]; index != -1; index = workspace.successor[index]) {
+            path[position++] = index;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,13 @@
+package Collections.Grafos;
+
+/**
+ * Callback for GraphADT.traverseBFS and traverseDFS.
+ */
+public interface GraphVisitor<T> {
+    /**
+     * Called once for every vertex reached, in traversal order.
+     *
+     * @return true to keep going, false to stop the traversal here
+     */
+    boolean visit(T vertex);
+}
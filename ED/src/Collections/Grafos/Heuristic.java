@@ -0,0 +1,10 @@
+package Collections.Grafos;
+
+/**
+ * Estimate of the remaining cost from a vertex to a target, used to guide
+ * A* searches. To keep the returned paths shortest the estimate must never
+ * exceed the real cost (admissible).
+ */
+public interface Heuristic<T> {
+    double estimate(T vertex, T target);
+}
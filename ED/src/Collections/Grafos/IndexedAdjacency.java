@@ -0,0 +1,28 @@
+package Collections.Grafos;
+
+/**
+ * Index-based view of the edges of a graph, used by the traversal
+ * algorithms that work on primitive vertex ids instead of vertex objects.
+ *
+ * The neighbors of a vertex are read as slots 0 .. neighborCount - 1. A
+ * slot whose weight is infinite holds no edge: adjacency matrices expose
+ * one slot per column, adjacency lists one slot per edge.
+ */
+public interface IndexedAdjacency {
+    /**
+     * Vertex indices are in the range 0 .. indexBound() - 1.
+     */
+    int indexBound();
+
+    int neighborCount(int index);
+
+    int neighborAt(int index, int slot);
+
+    double neighborWeight(int index, int slot);
+
+    /**
+     * True if edges only go from a vertex to its neighbors, false if every
+     * edge can also be followed back.
+     */
+    boolean isDirected();
+}
@@ -0,0 +1,9 @@
+package Collections.Grafos;
+
+/**
+ * Heuristic that can also be evaluated on vertex indices, which saves the
+ * vertex lookups when the search already works with indices.
+ */
+public interface IndexedHeuristic<T> extends Heuristic<T> {
+    double estimateIndex(int vertexIndex, int targetIndex);
+}
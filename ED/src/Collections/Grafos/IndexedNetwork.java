@@ -0,0 +1,28 @@
+package Collections.Grafos;
+
+/**
+ * A network whose vertices can be addressed by index, for algorithms
+ * that keep their per-vertex data in primitive arrays.
+ */
+public interface IndexedNetwork<T> extends NetworkADT<T>, IndexedAdjacency {
+    /**
+     * @return the index of the vertex, or -1 if it is not in the network
+     */
+    int getIndex(T vertex);
+
+    /**
+     * @return the vertex at the index, or null for an invalid index
+     */
+    T getVertex(int index);
+
+    /**
+     * False for indices out of range and for empty slots.
+     */
+    boolean indexIsValid(int index);
+
+    /**
+     * Weight of the edge between two valid indices, or infinity if there
+     * is none.
+     */
+    double edgeWeight(int index1, int index2);
+}
@@ -0,0 +1,90 @@
+package Collections.Grafos;
+
+/**
+ * Set of non-negative ints, open addressing with linear probing. Its size
+ * follows the number of elements added, not the range of the values, so a
+ * traversal that stops early only pays for the vertices it reached.
+ */
+public class IntHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int EMPTY = -1;
+    private int[] slots;
+    private int count;
+
+    public IntHashSet() {
+        this.slots = new int[DEFAULT_CAPACITY];
+        this.count = 0;
+        fill(slots);
+    }
+
+    private static void fill(int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = EMPTY;
+        }
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean contains(int value) {
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the value was not in the set yet
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        count++;
+        if (2 * count > slots.length) {
+            expandCapacity();
+        }
+        return true;
+    }
+
+    public void clear() {
+        fill(slots);
+        count = 0;
+    }
+
+    protected void expandCapacity() {
+        int[] oldSlots = slots;
+        slots = new int[oldSlots.length * 2];
+        fill(slots);
+        int mask = slots.length - 1;
+        for (int value : oldSlots) {
+            if (value != EMPTY) {
+                int slot = hash(value) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+}
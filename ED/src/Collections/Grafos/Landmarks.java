@@ -0,0 +1,331 @@
+package Collections.Grafos;
+
+import Collections.Heaps.IndexedMinHeap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ALT (A*, landmarks, triangle inequality) lower bounds for an undirected
+ * network. A few landmark vertices are chosen and the distance from each
+ * of them to every vertex is stored. For any landmark L,
+ * |d(L, t) - d(L, v)| never exceeds d(v, t), so the largest of these
+ * differences is an admissible A* heuristic, usually much tighter than a
+ * geometric one on mazes.
+ *
+ * Landmarks are picked by farthest-point selection on hop counts (each new
+ * landmark is the vertex farthest from the ones already chosen, so every
+ * component gets one); their weighted distances are then computed with one
+ * Dijkstra per landmark in parallel. The tables can be saved to a file and
+ * loaded back; a fingerprint of the edges tells whether the file still
+ * matches the network.
+ *
+ * The bounds stay admissible when edge weights increase. After a weight
+ * drops, or edges are added, the landmarks must be built again.
+ */
+public class Landmarks<T> implements IndexedHeuristic<T> {
+    private static final int MAGIC = 0x414C5431; // "ALT1"
+
+    protected final IndexedNetwork<T> network;
+    protected final int numVertices;
+    protected final int[] landmarks;
+    protected final double[][] distance;
+    protected final long fingerprint;
+
+    private Landmarks(IndexedNetwork<T> network, int[] landmarks, double[][] distance, long fingerprint) {
+        this.network = network;
+        this.numVertices = network.indexBound();
+        this.landmarks = landmarks;
+        this.distance = distance;
+        this.fingerprint = fingerprint;
+    }
+
+    public static <T> Landmarks<T> build(IndexedNetwork<T> network, int count) {
+        return build(network, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param count number of landmarks; fewer are used if the network has
+     *              fewer vertices
+     */
+    public static <T> Landmarks<T> build(IndexedNetwork<T> network, int count, ForkJoinPool pool) {
+        if (network.isDirected()) {
+            throw new IllegalArgumentException("Landmarks need an undirected network");
+        }
+        int[] chosen = selectLandmarks(network, count);
+        double[][] distance = new double[chosen.length][];
+        RecursiveAction[] tasks = new RecursiveAction[chosen.length];
+        for (int l = 0; l < chosen.length; l++) {
+            final int row = l;
+            tasks[l] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    distance[row] = distancesFrom(network, chosen[row]);
+                }
+            };
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return new Landmarks<>(network, chosen, distance, fingerprint(network));
+    }
+
+    public int size() {
+        return landmarks.length;
+    }
+
+    public int getLandmark(int l) {
+        return landmarks[l];
+    }
+
+    public double distance(int l, int index) {
+        return distance[l][index];
+    }
+
+    @Override
+    public double estimate(T vertex, T target) {
+        return estimateIndex(network.getIndex(vertex), network.getIndex(target));
+    }
+
+    /**
+     * Largest landmark lower bound on the distance between two vertices;
+     * infinity if a landmark shows they are in different components, 0
+     * for vertices added after the landmarks were built.
+     */
+    @Override
+    public double estimateIndex(int vertexIndex, int targetIndex) {
+        if (vertexIndex < 0 || targetIndex < 0 || vertexIndex >= numVertices || targetIndex >= numVertices) {
+            return 0;
+        }
+        double bound = 0;
+        for (double[] row : distance) {
+            double toVertex = row[vertexIndex];
+            double toTarget = row[targetIndex];
+            if (toVertex == Double.POSITIVE_INFINITY || toTarget == Double.POSITIVE_INFINITY) {
+                if (toVertex != toTarget) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            double difference = Math.abs(toTarget - toVertex);
+            if (difference > bound) {
+                bound = difference;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * True if the tables were built for a network with the same vertex
+     * slots and edges as the given one.
+     */
+    public boolean matches(IndexedNetwork<T> other) {
+        return other.indexBound() == numVertices && fingerprint(other) == fingerprint;
+    }
+
+    /**
+     * Farthest-point selection on hop counts, inside the largest connected
+     * component: the first landmark is the vertex farthest from some vertex
+     * of that component, each next one the vertex whose hop distance to the
+     * closest landmark is largest. Smaller components (often single rooms
+     * cut off from the rest) get no landmark; their bounds are 0.
+     */
+    protected static int[] selectLandmarks(IndexedNetwork<?> network, int count) {
+        int n = network.indexBound();
+        int[] nearest = new int[n];
+        int[] hops = new int[n];
+        int[] queue = new int[n];
+        int[] chosen = new int[Math.max(0, count)];
+        int chosenCount = 0;
+
+        int first = largestComponentVertex(network);
+        if (first == -1 || count <= 0) {
+            return new int[0];
+        }
+        hopsFrom(network, first, hops, queue);
+        System.arraycopy(hops, 0, nearest, 0, n);
+
+        while (chosenCount < chosen.length) {
+            int farthest = first;
+            for (int i = 0; i < n; i++) {
+                if (hops[i] != Integer.MAX_VALUE && nearest[i] > nearest[farthest]) {
+                    farthest = i;
+                }
+            }
+            if (chosenCount > 0 && nearest[farthest] == 0) {
+                break; // every vertex is a landmark already
+            }
+            chosen[chosenCount] = farthest;
+            if (chosenCount == 0) {
+                // Distances so far were from the first vertex, not a landmark
+                for (int i = 0; i < n; i++) {
+                    nearest[i] = Integer.MAX_VALUE;
+                }
+            }
+            chosenCount++;
+            hopsFrom(network, farthest, hops, queue);
+            for (int i = 0; i < n; i++) {
+                if (hops[i] < nearest[i]) {
+                    nearest[i] = hops[i];
+                }
+            }
+        }
+
+        int[] result = new int[chosenCount];
+        System.arraycopy(chosen, 0, result, 0, chosenCount);
+        return result;
+    }
+
+    /**
+     * A vertex of the largest connected component, or -1 if the network
+     * has no vertices.
+     */
+    private static int largestComponentVertex(IndexedNetwork<?> network) {
+        int n = network.indexBound();
+        UnionFind components = new UnionFind(n);
+        for (int i = 0; i < n; i++) {
+            for (int k = 0, degree = network.neighborCount(i); k < degree; k++) {
+                if (network.neighborWeight(i, k) < Double.POSITIVE_INFINITY) {
+                    components.union(i, network.neighborAt(i, k));
+                }
+            }
+        }
+        int best = -1;
+        for (int i = 0; i < n; i++) {
+            if (network.indexIsValid(i) && (best == -1 || components.setSize(i) > components.setSize(best))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Breadth-first hop counts from start, Integer.MAX_VALUE if unreachable.
+     */
+    private static void hopsFrom(IndexedAdjacency graph, int start, int[] hops, int[] queue) {
+        for (int i = 0; i < hops.length; i++) {
+            hops[i] = Integer.MAX_VALUE;
+        }
+        int head = 0;
+        int tail = 0;
+        hops[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int k = 0, degree = graph.neighborCount(current); k < degree; k++) {
+                int i = graph.neighborAt(current, k);
+                if (graph.neighborWeight(current, k) < Double.POSITIVE_INFINITY && hops[i] == Integer.MAX_VALUE) {
+                    hops[i] = hops[current] + 1;
+                    queue[tail++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Weighted distances from one vertex to all others, with Dijkstra.
+     */
+    private static double[] distancesFrom(IndexedAdjacency graph, int start) {
+        int n = graph.indexBound();
+        double[] pathWeight = new double[n];
+        for (int i = 0; i < n; i++) {
+            pathWeight[i] = Double.POSITIVE_INFINITY;
+        }
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        pathWeight[start] = 0;
+        heap.insert(start, 0);
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            for (int k = 0, degree = graph.neighborCount(index); k < degree; k++) {
+                int i = graph.neighborAt(index, k);
+                double w = graph.neighborWeight(index, k);
+                if (w < Double.POSITIVE_INFINITY && pathWeight[index] + w < pathWeight[i]) {
+                    pathWeight[i] = pathWeight[index] + w;
+                    heap.insertOrDecrease(i, pathWeight[i]);
+                }
+            }
+        }
+        return pathWeight;
+    }
+
+    /**
+     * Hash of the vertex slots and of every edge with its weight.
+     */
+    public static long fingerprint(IndexedAdjacency graph) {
+        long hash = graph.indexBound();
+        for (int i = 0, n = graph.indexBound(); i < n; i++) {
+            for (int k = 0, degree = graph.neighborCount(i); k < degree; k++) {
+                double w = graph.neighborWeight(i, k);
+                if (w < Double.POSITIVE_INFINITY) {
+                    long edge = ((long) i << 32 | graph.neighborAt(i, k)) * 0x9E3779B97F4A7C15L;
+                    hash = hash * 31 + (edge ^ Double.doubleToLongBits(w));
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the landmark tables to a binary file.
+     */
+    public void save(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(numVertices);
+            out.writeInt(landmarks.length);
+            out.writeLong(fingerprint);
+            for (int landmark : landmarks) {
+                out.writeInt(landmark);
+            }
+            for (double[] row : distance) {
+                for (double d : row) {
+                    out.writeDouble(d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads landmark tables saved for the given network.
+     *
+     * @return the landmarks, or null if the file was saved for a network
+     * with other vertices or edges
+     * @throws IOException if the file cannot be read or is not a landmark file
+     */
+    public static <T> Landmarks<T> load(IndexedNetwork<T> network, String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a landmark file: " + path);
+            }
+            int vertexCount = in.readInt();
+            int count = in.readInt();
+            long savedFingerprint = in.readLong();
+            if (vertexCount != network.indexBound() || count < 0 || savedFingerprint != fingerprint(network)) {
+                return null;
+            }
+            int[] landmarks = new int[count];
+            for (int l = 0; l < count; l++) {
+                landmarks[l] = in.readInt();
+            }
+            double[][] distance = new double[count][vertexCount];
+            for (int l = 0; l < count; l++) {
+                for (int i = 0; i < vertexCount; i++) {
+                    distance[l][i] = in.readDouble();
+                }
+            }
+            return new Landmarks<>(network, landmarks, distance, savedFingerprint);
+        }
+    }
+}
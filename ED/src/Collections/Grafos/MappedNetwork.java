@@ -0,0 +1,284 @@
+package Collections.Grafos;
+
+import Collections.ListasIterador.Classes.ArrayUnorderedList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Iterator;
+
+/**
+ * Read-only network backed by a memory-mapped NetworkSnapshot. The CSR
+ * arrays are views of the mapped file, so opening costs nothing per edge;
+ * vertices are decoded on first use and indexed on the first getIndex.
+ * Every method that would change the network throws
+ * UnsupportedOperationException.
+ */
+public class MappedNetwork<T> implements IndexedNetwork<T> {
+    protected final boolean directed;
+    protected final int numVertices;
+    protected final int numArcs;
+    protected final DoubleBuffer weight;
+    protected final IntBuffer arcStart;
+    protected final IntBuffer target;
+    protected final IntBuffer vertexStart;
+    protected final ByteBuffer vertexBytes;
+    protected final VertexCodec<T> codec;
+
+    protected T[] vertices;
+    protected boolean[] decoded;
+    protected VertexIndex<T> vertexIndex;
+    protected ConnectivityIndex connectivity;
+    protected final GraphKernel kernel;
+
+    MappedNetwork(ByteBuffer data, boolean directed, int vertexCount, int arcCount, VertexCodec<T> codec) {
+        this.directed = directed;
+        this.numVertices = vertexCount;
+        this.numArcs = arcCount;
+        this.codec = codec;
+        this.kernel = new GraphKernel(this);
+
+        int offset = NetworkSnapshot.HEADER_BYTES;
+        this.weight = view(data, offset, arcCount * Double.BYTES).asDoubleBuffer();
+        offset += arcCount * Double.BYTES;
+        this.arcStart = view(data, offset, (vertexCount + 1) * Integer.BYTES).asIntBuffer();
+        offset += (vertexCount + 1) * Integer.BYTES;
+        this.target = view(data, offset, arcCount * Integer.BYTES).asIntBuffer();
+        offset += arcCount * Integer.BYTES;
+        this.vertexStart = view(data, offset, (vertexCount + 1) * Integer.BYTES).asIntBuffer();
+        offset += (vertexCount + 1) * Integer.BYTES;
+        this.vertexBytes = view(data, offset, data.capacity() - offset);
+    }
+
+    private static ByteBuffer view(ByteBuffer data, int offset, int length) {
+        return data.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Number of arcs; an undirected edge counts as two.
+     */
+    public int arcCount() {
+        return numArcs;
+    }
+
+    @Override
+    public int indexBound() {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborCount(int index) {
+        return arcStart.get(index + 1) - arcStart.get(index);
+    }
+
+    @Override
+    public int neighborAt(int index, int slot) {
+        return target.get(arcStart.get(index) + slot);
+    }
+
+    @Override
+    public double neighborWeight(int index, int slot) {
+        return weight.get(arcStart.get(index) + slot);
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public boolean indexIsValid(int index) {
+        return index >= 0 && index < numVertices;
+    }
+
+    @Override
+    public T getVertex(int index) {
+        if (!indexIsValid(index)) {
+            return null;
+        }
+        if (vertices == null) {
+            @SuppressWarnings("unchecked")
+            T[] slots = (T[]) new Object[numVertices];
+            vertices = slots;
+            decoded = new boolean[numVertices];
+        }
+        if (!decoded[index]) {
+            int from = vertexStart.get(index);
+            int to = vertexStart.get(index + 1);
+            vertices[index] = codec.decode(vertexBytes.slice(from, to - from).order(ByteOrder.LITTLE_ENDIAN));
+            decoded[index] = true;
+        }
+        return vertices[index];
+    }
+
+    @Override
+    public int getIndex(T vertex) {
+        if (vertexIndex == null) {
+            vertexIndex = new VertexIndex<>();
+            for (int i = 0; i < numVertices; i++) {
+                vertexIndex.putIfAbsent(getVertex(i), i);
+            }
+        }
+        return vertexIndex.get(vertex);
+    }
+
+    /**
+     * Weight of the arc between two indices, found by binary search in the
+     * sorted targets of index1, or infinity if there is none.
+     */
+    @Override
+    public double edgeWeight(int index1, int index2) {
+        if (!indexIsValid(index1) || !indexIsValid(index2)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int low = arcStart.get(index1);
+        int high = arcStart.get(index1 + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int t = target.get(mid);
+            if (t < index2) {
+                low = mid + 1;
+            } else if (t > index2) {
+                high = mid - 1;
+            } else {
+                return weight.get(mid);
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public double edgeWeight(T vertex1, T vertex2) {
+        return edgeWeight(getIndex(vertex1), getIndex(vertex2));
+    }
+
+    /**
+     * Adds the vertices and edges of this snapshot to an empty network.
+     */
+    void copyTo(IndexedNetwork<T> network) {
+        for (int i = 0; i < numVertices; i++) {
+            network.addVertex(getVertex(i));
+        }
+        boolean bothWays = !network.isDirected();
+        for (int i = 0; i < numVertices; i++) {
+            T from = getVertex(i);
+            for (int a = arcStart.get(i), end = arcStart.get(i + 1); a < end; a++) {
+                int j = target.get(a);
+                if (!bothWays || j >= i) {
+                    network.addEdge(from, getVertex(j), weight.get(a));
+                }
+            }
+        }
+    }
+
+    private T[] allVertices() {
+        for (int i = 0; i < numVertices; i++) {
+            getVertex(i);
+        }
+        return vertices;
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A mapped network is read-only");
+    }
+
+    @Override
+    public void addVertex(T vertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeVertex(T vertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addEdge(T vertex1, T vertex2) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addEdge(T vertex1, T vertex2, double weight) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeEdge(T vertex1, T vertex2) {
+        throw readOnly();
+    }
+
+    @Override
+    public Iterator<T> iteratorBFS(T startVertex) {
+        return TraversalIterator.breadthFirst(this, allVertices(), getIndex(startVertex));
+    }
+
+    @Override
+    public Iterator<T> iteratorDFS(T startVertex) {
+        return TraversalIterator.depthFirst(this, allVertices(), getIndex(startVertex));
+    }
+
+    public int getLastExpandedCount() {
+        return kernel.getLastExpandedCount();
+    }
+
+    @Override
+    public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return new ArrayUnorderedList<T>().iterator();
+        }
+        return GraphKernel.pathIterator(kernel.shortestPath(startIndex, targetIndex), allVertices());
+    }
+
+    @Override
+    public PathResult<T> shortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return PathResult.empty();
+        }
+        return PathResult.of(this, startIndex, targetIndex, kernel.shortestPath(startIndex, targetIndex));
+    }
+
+    @Override
+    public double shortestPathWeight(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return kernel.shortestPathWeight(startIndex, targetIndex);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return numVertices == 0;
+    }
+
+    @Override
+    public boolean isConnected() {
+        if (isEmpty()) {
+            return false;
+        }
+        if (directed) {
+            return FrontierBFS.reachableCount(this, 0) == numVertices;
+        }
+        if (connectivity == null) {
+            connectivity = new ConnectivityIndex(this);
+        }
+        return connectivity.componentCount() == 1;
+    }
+
+    @Override
+    public int size() {
+        return numVertices;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedNetwork: " + numVertices + " vertices, " + numArcs + " arcs"
+                + (directed ? " (directed)" : "");
+    }
+}
@@ -0,0 +1,348 @@
+package Collections.Grafos;
+
+import Collections.Heaps.IndexedMinHeap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Minimum spanning forest of a graph, as a list of edges between vertex
+ * indices. A connected graph with V vertices gets V - 1 edges; otherwise
+ * there is one tree per component.
+ *
+ * Three algorithms build it: Kruskal (edges sorted once, cycles rejected
+ * with a UnionFind), Prim (grown from each root with an IndexedMinHeap)
+ * and Boruvka (every component picks its cheapest outgoing edge in
+ * parallel on a ForkJoinPool, halving the components each round). Edges
+ * of equal weight are ordered by the position they are found in, so all
+ * three agree on the total weight and Boruvka never closes a cycle.
+ *
+ * Directed graphs are treated as undirected: each arc is a candidate
+ * edge between its two vertices.
+ */
+public class MinimumSpanningTree {
+    /**
+     * Graphs with at least this many vertices use the parallel Boruvka in of().
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+    private static final int EDGES_PER_TASK = 8192;
+
+    protected final int numVertices;
+    protected final int[] from;
+    protected final int[] to;
+    protected final double[] weight;
+    protected int count;
+    protected double totalWeight;
+
+    private MinimumSpanningTree(int numVertices) {
+        this.numVertices = numVertices;
+        int capacity = Math.max(0, numVertices - 1);
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.weight = new double[capacity];
+        this.count = 0;
+        this.totalWeight = 0;
+    }
+
+    private void add(int vertex1, int vertex2, double edgeWeight) {
+        from[count] = vertex1;
+        to[count] = vertex2;
+        weight[count] = edgeWeight;
+        count++;
+        totalWeight += edgeWeight;
+    }
+
+    /**
+     * Boruvka for large graphs, Prim for small undirected ones and Kruskal
+     * for small directed ones.
+     */
+    public static MinimumSpanningTree of(IndexedAdjacency graph) {
+        return of(graph, ForkJoinPool.commonPool());
+    }
+
+    public static MinimumSpanningTree of(IndexedAdjacency graph, ForkJoinPool pool) {
+        if (graph.indexBound() >= PARALLEL_THRESHOLD) {
+            return boruvka(graph, pool);
+        }
+        return graph.isDirected() ? kruskal(graph) : prim(graph);
+    }
+
+    /**
+     * Number of vertex indices the forest spans (the graph's indexBound).
+     */
+    public int vertexCount() {
+        return numVertices;
+    }
+
+    public int edgeCount() {
+        return count;
+    }
+
+    public int from(int edge) {
+        return from[edge];
+    }
+
+    public int to(int edge) {
+        return to[edge];
+    }
+
+    public double weight(int edge) {
+        return weight[edge];
+    }
+
+    public double totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Kruskal's algorithm, O(E log E).
+     */
+    public static MinimumSpanningTree kruskal(IndexedAdjacency graph) {
+        int n = graph.indexBound();
+        EdgeList edges = EdgeList.of(graph);
+        int[] order = edges.sortedByWeight();
+        UnionFind sets = new UnionFind(n);
+        MinimumSpanningTree result = new MinimumSpanningTree(n);
+
+        for (int k = 0; k < edges.count && result.count < n - 1; k++) {
+            int e = order[k];
+            if (sets.union(edges.from[e], edges.to[e])) {
+                result.add(edges.from[e], edges.to[e], edges.weight[e]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prim's algorithm, O((V + E) log V). On adjacency matrices, where
+     * every vertex has V neighbor slots, it reads each slot once, so it is
+     * the best choice for dense graphs. Directed graphs use Kruskal, since
+     * their neighbor slots do not show incoming arcs.
+     */
+    public static MinimumSpanningTree prim(IndexedAdjacency graph) {
+        if (graph.isDirected()) {
+            return kruskal(graph);
+        }
+        int n = graph.indexBound();
+        MinimumSpanningTree result = new MinimumSpanningTree(n);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        double[] bestWeight = new double[n];
+        int[] bestFrom = new int[n];
+        boolean[] inTree = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            bestWeight[i] = Double.POSITIVE_INFINITY;
+            bestFrom[i] = -1;
+        }
+
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            bestWeight[root] = 0;
+            heap.insert(root, 0);
+            while (!heap.isEmpty()) {
+                int index = heap.removeMin();
+                inTree[index] = true;
+                if (bestFrom[index] != -1) {
+                    result.add(bestFrom[index], index, bestWeight[index]);
+                }
+                for (int k = 0, degree = graph.neighborCount(index); k < degree; k++) {
+                    int i = graph.neighborAt(index, k);
+                    double w = graph.neighborWeight(index, k);
+                    if (!inTree[i] && w < bestWeight[i]) {
+                        bestWeight[i] = w;
+                        bestFrom[i] = index;
+                        heap.insertOrDecrease(i, w);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Boruvka's algorithm, O(E log V) work split across the pool. Each
+     * round every component picks its cheapest edge to another component,
+     * and edges that end up inside one component are dropped.
+     */
+    public static MinimumSpanningTree boruvka(IndexedAdjacency graph, ForkJoinPool pool) {
+        int n = graph.indexBound();
+        EdgeList edges = EdgeList.of(graph);
+        UnionFind sets = new UnionFind(n);
+        MinimumSpanningTree result = new MinimumSpanningTree(n);
+        int[] component = new int[n];
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+
+        int[] live = new int[edges.count];
+        int liveCount = edges.count;
+        for (int e = 0; e < liveCount; e++) {
+            live[e] = e;
+        }
+
+        while (liveCount > 0 && result.count < n - 1) {
+            for (int i = 0; i < n; i++) {
+                component[i] = sets.find(i);
+                cheapest.set(i, -1);
+            }
+            pool.invoke(new CheapestEdges(edges, live, 0, liveCount, component, cheapest));
+
+            for (int i = 0; i < n; i++) {
+                int e = cheapest.get(i);
+                if (component[i] == i && e != -1 && sets.union(edges.from[e], edges.to[e])) {
+                    result.add(edges.from[e], edges.to[e], edges.weight[e]);
+                }
+            }
+
+            int kept = 0;
+            for (int k = 0; k < liveCount; k++) {
+                int e = live[k];
+                if (sets.find(edges.from[e]) != sets.find(edges.to[e])) {
+                    live[kept++] = e;
+                }
+            }
+            liveCount = kept;
+        }
+        return result;
+    }
+
+    /**
+     * The finite-weight edges of a graph, each undirected edge once.
+     */
+    private static class EdgeList {
+        int[] from = new int[16];
+        int[] to = new int[16];
+        double[] weight = new double[16];
+        int count = 0;
+
+        static EdgeList of(IndexedAdjacency graph) {
+            EdgeList edges = new EdgeList();
+            boolean directed = graph.isDirected();
+            for (int i = 0, n = graph.indexBound(); i < n; i++) {
+                for (int k = 0, degree = graph.neighborCount(i); k < degree; k++) {
+                    int j = graph.neighborAt(i, k);
+                    double w = graph.neighborWeight(i, k);
+                    if (w < Double.POSITIVE_INFINITY && (directed ? j != i : j > i)) {
+                        edges.add(i, j, w);
+                    }
+                }
+            }
+            return edges;
+        }
+
+        void add(int vertex1, int vertex2, double edgeWeight) {
+            if (count == from.length) {
+                int[] largerFrom = new int[count * 2];
+                int[] largerTo = new int[count * 2];
+                double[] largerWeight = new double[count * 2];
+                System.arraycopy(from, 0, largerFrom, 0, count);
+                System.arraycopy(to, 0, largerTo, 0, count);
+                System.arraycopy(weight, 0, largerWeight, 0, count);
+                from = largerFrom;
+                to = largerTo;
+                weight = largerWeight;
+            }
+            from[count] = vertex1;
+            to[count] = vertex2;
+            weight[count] = edgeWeight;
+            count++;
+        }
+
+        /**
+         * True if edge a comes before edge b: lighter, or as heavy and
+         * found first.
+         */
+        boolean lighter(int a, int b) {
+            return weight[a] < weight[b] || (weight[a] == weight[b] && a < b);
+        }
+
+        /**
+         * Edge positions sorted by weight, with a bottom-up merge sort
+         * (stable, so equal weights keep the order they were found in).
+         */
+        int[] sortedByWeight() {
+            int[] order = new int[count];
+            int[] buffer = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < count; width *= 2) {
+                for (int low = 0; low < count - width; low += 2 * width) {
+                    int middle = low + width;
+                    int high = Math.min(low + 2 * width, count);
+                    int left = low;
+                    int right = middle;
+                    int out = low;
+                    while (left < middle && right < high) {
+                        buffer[out++] = weight[order[right]] < weight[order[left]] ? order[right++] : order[left++];
+                    }
+                    while (left < middle) {
+                        buffer[out++] = order[left++];
+                    }
+                    while (right < high) {
+                        buffer[out++] = order[right++];
+                    }
+                    System.arraycopy(buffer, low, order, low, high - low);
+                }
+            }
+            return order;
+        }
+    }
+
+    /**
+     * Records, for each component, the lightest live edge leaving it.
+     * Components are updated with a compare-and-set loop, so ranges of
+     * edges can be scanned concurrently.
+     */
+    private static class CheapestEdges extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final EdgeList edges;
+        private final int[] live;
+        private final int fromEdge;
+        private final int toEdge;
+        private final int[] component;
+        private final AtomicIntegerArray cheapest;
+
+        CheapestEdges(EdgeList edges, int[] live, int fromEdge, int toEdge,
+                      int[] component, AtomicIntegerArray cheapest) {
+            this.edges = edges;
+            this.live = live;
+            this.fromEdge = fromEdge;
+            this.toEdge = toEdge;
+            this.component = component;
+            this.cheapest = cheapest;
+        }
+
+        @Override
+        protected void compute() {
+            if (toEdge - fromEdge > EDGES_PER_TASK) {
+                int middle = (fromEdge + toEdge) >>> 1;
+                invokeAll(new CheapestEdges(edges, live, fromEdge, middle, component, cheapest),
+                        new CheapestEdges(edges, live, middle, toEdge, component, cheapest));
+                return;
+            }
+            for (int k = fromEdge; k < toEdge; k++) {
+                int e = live[k];
+                int component1 = component[edges.from[e]];
+                int component2 = component[edges.to[e]];
+                if (component1 != component2) {
+                    offer(component1, e);
+                    offer(component2, e);
+                }
+            }
+        }
+
+        private void offer(int target, int e) {
+            while (true) {
+                int current = cheapest.get(target);
+                if (current != -1 && !edges.lighter(e, current)) {
+                    return;
+                }
+                if (cheapest.compareAndSet(target, current, e)) {
+                    return;
+                }
+            }
+        }
+    }
+}
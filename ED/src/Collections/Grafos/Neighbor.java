@@ -0,0 +1,28 @@
+package Collections.Grafos;
+
+/**
+ * A vertex adjacent to another one, together with the weight of the edge
+ * that connects them.
+ */
+public class Neighbor<T> {
+    private final T vertex;
+    private final double weight;
+
+    public Neighbor(T vertex, double weight) {
+        this.vertex = vertex;
+        this.weight = weight;
+    }
+
+    public T getVertex() {
+        return vertex;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return vertex + " (" + weight + ")";
+    }
+}
@@ -5,5 +5,18 @@ public interface NetworkADT<T> extends GraphADT<T> {
     void addEdge(T vertex1, T vertex2, double weight);
     double shortestPathWeight(T vertex1, T vertex2);
 
+    /**
+     * Shortest path with the weight of each edge and the total cost, from
+     * a single search. Empty if either vertex is missing or there is no
+     * path.
+     */
+    PathResult<T> shortestPath(T vertex1, T vertex2);
+
+    /**
+     * Weight of the edge between two vertices, or infinity if there is
+     * none; a direct lookup, not a search.
+     */
+    double edgeWeight(T vertex1, T vertex2);
+
 
 }
@@ -1,104 +1,315 @@
 package Collections.Grafos;
 
-import Collections.Heaps.ArrayHeap;
-import Collections.Heaps.LinkedHeap;
 import Collections.ListasIterador.Classes.ArrayUnorderedList;
-import Collections.Queue.LinkedQueue;
-import Collections.Stacks.LinkedStack;
 
 import java.util.Iterator;
 
-public class NetworkBiDirectional<T> implements NetworkADT<T> {
+public class NetworkBiDirectional<T> implements IndexedNetwork<T> {
     protected final int DEFAULT_CAPACITY = 10;
     protected int numVertices;
     protected T[] vertices;
     protected double[][] adjMatrix;
     protected boolean[] occupiedVertices;
 
+    /**
+     * Sparse storage: per-vertex neighbor lists kept sorted by index, so
+     * traversals visit neighbors in the same order as the dense matrix.
+     */
+    protected final int DEFAULT_DEGREE = 4;
+    protected boolean sparse;
+    protected int[][] adjIndex;
+    protected double[][] adjWeight;
+    protected int[] degree;
+    protected VertexIndex<T> vertexIndex;
+    protected GraphKernel kernel;
+
+    /**
+     * Stable indices: removing a vertex leaves its slot empty instead of
+     * shifting the following vertices down, and addVertex fills empty
+     * slots first. numVertices is then one past the highest slot in use.
+     */
+    protected boolean stableIndices;
+    protected FreeSlots freeSlots;
+
+    /**
+     * Connected components, merged as edges are added and rebuilt lazily
+     * after removals.
+     */
+    protected ConnectivityIndex connectivity;
+
     public NetworkBiDirectional() {
+        this(false);
+    }
+
+    /**
+     * @param sparse true to store edges in adjacency lists (memory and
+     *               neighbor scans proportional to the number of edges),
+     *               false for the adjacency matrix
+     */
+    public NetworkBiDirectional(boolean sparse) {
         numVertices = 0;
+        this.sparse = sparse;
+        this.vertexIndex = new VertexIndex<>();
+        this.kernel = new GraphKernel(this);
+        this.freeSlots = new FreeSlots();
+        this.connectivity = new ConnectivityIndex(this);
         this.vertices = (T[]) new Object[DEFAULT_CAPACITY];
-        this.adjMatrix = new double[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
         this.occupiedVertices = new boolean[DEFAULT_CAPACITY];
+        if (sparse) {
+            this.adjIndex = new int[DEFAULT_CAPACITY][];
+            this.adjWeight = new double[DEFAULT_CAPACITY][];
+            this.degree = new int[DEFAULT_CAPACITY];
+        } else {
+            this.adjMatrix = new double[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
+        }
+    }
+
+    public boolean isSparse() {
+        return sparse;
     }
 
     public int getIndex(T vertex) {
-        for (int i = 0; i < numVertices; i++) {
-            if (vertices[i].equals(vertex)) {
-                return i;
-            }
-        }
-        return -1;
+        return vertexIndex.get(vertex);
+    }
+
+    public T getVertex(int index) {
+        return indexIsValid(index) ? vertices[index] : null;
     }
 
     public boolean indexIsValid(int index) {
-        return (index < numVertices && index >= 0);
+        return (index < numVertices && index >= 0) && !freeSlots.isFree(index);
+    }
+
+    public boolean hasStableIndices() {
+        return stableIndices;
+    }
+
+    /**
+     * Turns stable indices on or off. Turning them off compacts the graph,
+     * so the indices of the remaining vertices may change.
+     */
+    public void setStableIndices(boolean stableIndices) {
+        if (!stableIndices) {
+            compact();
+        }
+        this.stableIndices = stableIndices;
     }
 
     protected void expandCapacity() {
         T[] largerVertices = (T[]) (new Object[vertices.length * 2]);
-        double[][] largerAdjMatrix = new double[vertices.length * 2][vertices.length * 2];
+        boolean[] largerOccupied = new boolean[vertices.length * 2];
         for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; j++) {
-                largerAdjMatrix[i][j] = adjMatrix[i][j];
-            }
             largerVertices[i] = vertices[i];
+            largerOccupied[i] = occupiedVertices[i];
+        }
+
+        if (sparse) {
+            int[][] largerAdjIndex = new int[vertices.length * 2][];
+            double[][] largerAdjWeight = new double[vertices.length * 2][];
+            int[] largerDegree = new int[vertices.length * 2];
+            for (int i = 0; i < numVertices; i++) {
+                largerAdjIndex[i] = adjIndex[i];
+                largerAdjWeight[i] = adjWeight[i];
+                largerDegree[i] = degree[i];
+            }
+            adjIndex = largerAdjIndex;
+            adjWeight = largerAdjWeight;
+            degree = largerDegree;
+        } else {
+            double[][] largerAdjMatrix = new double[vertices.length * 2][vertices.length * 2];
+            for (int i = 0; i < numVertices; i++) {
+                for (int j = 0; j < numVertices; j++) {
+                    largerAdjMatrix[i][j] = adjMatrix[i][j];
+                }
+            }
+            adjMatrix = largerAdjMatrix;
         }
 
         vertices = largerVertices;
-        adjMatrix = largerAdjMatrix;
+        occupiedVertices = largerOccupied;
     }
 
     @Override
     public void addVertex(T vertex) {
-        if (numVertices == vertices.length) {
-            expandCapacity();
-        }
-        vertices[numVertices] = vertex;
-        for (int i = 0; i <= numVertices; i++) {
-            adjMatrix[numVertices][i] = Double.POSITIVE_INFINITY;
-            adjMatrix[i][numVertices] = Double.POSITIVE_INFINITY;
+        int index = freeSlots.acquire();
+        if (index == -1) {
+            if (numVertices == vertices.length) {
+                expandCapacity();
+            }
+            index = numVertices++;
         }
-        numVertices++;
+        vertices[index] = vertex;
+        vertexIndex.putIfAbsent(vertex, index);
+        clearEdgesOf(index);
     }
 
     public void addVertex() {
-        if (numVertices == vertices.length)
-            expandCapacity();
+        addVertex(null);
+    }
 
-        vertices[numVertices] = null;
-        for (int i = 0; i <= numVertices; i++) {
-            adjMatrix[numVertices][i] = Double.POSITIVE_INFINITY;
-            adjMatrix[i][numVertices] = Double.POSITIVE_INFINITY;
+    /**
+     * Resets the edges of a newly added vertex slot. A reused slot had all
+     * its edges removed already, so only the entries up to index matter.
+     */
+    private void clearEdgesOf(int index) {
+        if (sparse) {
+            adjIndex[index] = new int[DEFAULT_DEGREE];
+            adjWeight[index] = new double[DEFAULT_DEGREE];
+            degree[index] = 0;
+        } else {
+            for (int i = 0; i <= index; i++) {
+                adjMatrix[index][i] = Double.POSITIVE_INFINITY;
+                adjMatrix[i][index] = Double.POSITIVE_INFINITY;
+            }
         }
-        numVertices++;
     }
 
     @Override
     public void removeVertex(T vertex) {
-        for (int i = 0; i < numVertices; i++) {
-            if (vertex.equals(vertices[i])) {
-                removeVertex(i);
+        removeVertex(getIndex(vertex));
+    }
+
+    public void removeVertex(int index) {
+        if (indexIsValid(index)) {
+            T removed = vertices[index];
+            connectivity.invalidate();
+            if (stableIndices) {
+                removeVertexKeepingSlot(index);
+                vertexIndex.removeAt(removed, index, vertices, numVertices);
                 return;
             }
+            if (sparse) {
+                removeVertexSparse(index);
+            } else {
+                removeVertexDense(index);
+            }
+            vertexIndex.removeShifted(removed, index, vertices, numVertices);
         }
     }
 
-    public void removeVertex(int index) {
-        if (indexIsValid(index)) {
-            numVertices--;
+    private void removeVertexDense(int index) {
+        numVertices--;
+
+        for (int i = index; i < numVertices; i++)
+            vertices[i] = vertices[i + 1];
+
+        for (int i = index; i < numVertices; i++)
+            for (int j = 0; j <= numVertices; j++)
+                adjMatrix[i][j] = adjMatrix[i + 1][j];
+
+        for (int i = index; i < numVertices; i++)
+            for (int j = 0; j < numVertices; j++)
+                adjMatrix[j][i] = adjMatrix[j][i + 1];
+    }
+
+    private void removeVertexSparse(int index) {
+        // Drop the reverse arcs, then shift the lists down and renumber
+        for (int k = 0; k < degree[index]; k++) {
+            int neighbor = adjIndex[index][k];
+            if (neighbor != index) {
+                removeArc(neighbor, index);
+            }
+        }
+        numVertices--;
+
+        for (int i = index; i < numVertices; i++) {
+            vertices[i] = vertices[i + 1];
+            occupiedVertices[i] = occupiedVertices[i + 1];
+            adjIndex[i] = adjIndex[i + 1];
+            adjWeight[i] = adjWeight[i + 1];
+            degree[i] = degree[i + 1];
+        }
+        vertices[numVertices] = null;
+        adjIndex[numVertices] = null;
+        adjWeight[numVertices] = null;
+        degree[numVertices] = 0;
+
+        for (int i = 0; i < numVertices; i++) {
+            for (int k = 0; k < degree[i]; k++) {
+                if (adjIndex[i][k] > index) {
+                    adjIndex[i][k]--;
+                }
+            }
+        }
+    }
 
-            for (int i = index; i < numVertices; i++)
-                vertices[i] = vertices[i + 1];
+    /**
+     * Drops the edges of a vertex and frees its slot: O(V) in dense mode,
+     * O(degree log degree) in sparse mode.
+     */
+    private void removeVertexKeepingSlot(int index) {
+        if (sparse) {
+            for (int k = 0; k < degree[index]; k++) {
+                int neighbor = adjIndex[index][k];
+                if (neighbor != index) {
+                    removeArc(neighbor, index);
+                }
+            }
+            degree[index] = 0;
+        } else {
+            for (int i = 0; i < numVertices; i++) {
+                adjMatrix[index][i] = Double.POSITIVE_INFINITY;
+                adjMatrix[i][index] = Double.POSITIVE_INFINITY;
+            }
+        }
+        vertices[index] = null;
+        occupiedVertices[index] = false;
+        freeSlots.release(index);
+    }
 
-            for (int i = index; i < numVertices; i++)
-                for (int j = 0; j <= numVertices; j++)
-                    adjMatrix[i][j] = adjMatrix[i + 1][j];
+    /**
+     * Moves the vertices down over the empty slots, keeping their order.
+     *
+     * @return the new index of each old index, -1 for the empty slots
+     */
+    public int[] compact() {
+        int[] newIndex = new int[numVertices];
+        int count = 0;
+        for (int i = 0; i < numVertices; i++) {
+            newIndex[i] = freeSlots.isFree(i) ? -1 : count++;
+        }
+        if (freeSlots.isEmpty()) {
+            return newIndex;
+        }
 
-            for (int i = index; i < numVertices; i++)
-                for (int j = 0; j < numVertices; j++)
-                    adjMatrix[j][i] = adjMatrix[j][i + 1];
+        // Slots only move down, so nothing is overwritten before it is read
+        for (int i = 0; i < numVertices; i++) {
+            int to = newIndex[i];
+            if (to == -1) {
+                continue;
+            }
+            vertices[to] = vertices[i];
+            occupiedVertices[to] = occupiedVertices[i];
+            if (sparse) {
+                adjIndex[to] = adjIndex[i];
+                adjWeight[to] = adjWeight[i];
+                degree[to] = degree[i];
+                for (int k = 0; k < degree[to]; k++) {
+                    adjIndex[to][k] = newIndex[adjIndex[to][k]];
+                }
+            } else {
+                for (int j = 0; j < numVertices; j++) {
+                    if (newIndex[j] != -1) {
+                        adjMatrix[to][newIndex[j]] = adjMatrix[i][j];
+                    }
+                }
+            }
+        }
+        for (int i = count; i < numVertices; i++) {
+            vertices[i] = null;
+            occupiedVertices[i] = false;
+            if (sparse) {
+                adjIndex[i] = null;
+                adjWeight[i] = null;
+                degree[i] = 0;
+            }
         }
+
+        numVertices = count;
+        freeSlots.clear();
+        vertexIndex.rebuild(vertices, numVertices);
+        connectivity.invalidate();
+        return newIndex;
     }
 
     @Override
@@ -113,8 +324,18 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
 
     public void addEdge(int index1, int index2, double weight) {
         if (indexIsValid(index1) && indexIsValid(index2)) {
-            adjMatrix[index1][index2] = weight;
-            adjMatrix[index2][index1] = weight;
+            if (weight == Double.POSITIVE_INFINITY) {
+                removeEdge(index1, index2);
+                return;
+            }
+            if (sparse) {
+                setArc(index1, index2, weight);
+                setArc(index2, index1, weight);
+            } else {
+                adjMatrix[index1][index2] = weight;
+                adjMatrix[index2][index1] = weight;
+            }
+            connectivity.edgeAdded(index1, index2);
         }
     }
 
@@ -125,251 +346,311 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
 
     public void removeEdge(int index1, int index2) {
         if (indexIsValid(index1) && indexIsValid(index2)) {
-            adjMatrix[index1][index2] = Double.POSITIVE_INFINITY;
-            adjMatrix[index2][index1] = Double.POSITIVE_INFINITY;
+            if (edgeWeight(index1, index2) < Double.POSITIVE_INFINITY) {
+                connectivity.invalidate();
+            }
+            if (sparse) {
+                removeArc(index1, index2);
+                removeArc(index2, index1);
+            } else {
+                adjMatrix[index1][index2] = Double.POSITIVE_INFINITY;
+                adjMatrix[index2][index1] = Double.POSITIVE_INFINITY;
+            }
         }
     }
 
-    @Override
-    public Iterator<T> iteratorBFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        LinkedQueue<Integer> traversalQueue = new LinkedQueue<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
+    /**
+     * Position of target in the sorted neighbor list of source, or
+     * -(insertion point + 1) when absent.
+     */
+    private int findArc(int source, int target) {
+        int low = 0;
+        int high = degree[source] - 1;
+        int[] list = adjIndex[source];
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < target) {
+                low = mid + 1;
+            } else if (list[mid] > target) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
         }
+        return -(low + 1);
+    }
 
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
+    private void setArc(int source, int target, double weight) {
+        int pos = findArc(source, target);
+        if (pos >= 0) {
+            adjWeight[source][pos] = weight;
+            return;
         }
+        pos = -(pos + 1);
+        int count = degree[source];
+        if (count == adjIndex[source].length) {
+            int[] largerIndex = new int[count * 2];
+            double[] largerWeight = new double[count * 2];
+            System.arraycopy(adjIndex[source], 0, largerIndex, 0, count);
+            System.arraycopy(adjWeight[source], 0, largerWeight, 0, count);
+            adjIndex[source] = largerIndex;
+            adjWeight[source] = largerWeight;
+        }
+        System.arraycopy(adjIndex[source], pos, adjIndex[source], pos + 1, count - pos);
+        System.arraycopy(adjWeight[source], pos, adjWeight[source], pos + 1, count - pos);
+        adjIndex[source][pos] = target;
+        adjWeight[source][pos] = weight;
+        degree[source]++;
+    }
 
-        traversalQueue.enqueue(startIndex);
-        visited[startIndex] = true;
+    private void removeArc(int source, int target) {
+        int pos = findArc(source, target);
+        if (pos < 0) {
+            return;
+        }
+        int count = degree[source];
+        System.arraycopy(adjIndex[source], pos + 1, adjIndex[source], pos, count - pos - 1);
+        System.arraycopy(adjWeight[source], pos + 1, adjWeight[source], pos, count - pos - 1);
+        degree[source]--;
+    }
 
-        while (!traversalQueue.isEmpty()) {
-            int current = traversalQueue.dequeue();
-            resultList.addToRear(vertices[current]);
+    @Override
+    public int indexBound() {
+        return numVertices;
+    }
 
-            // Enqueue all unvisited adjacent vertices
-            for (int i = 0; i < numVertices; i++) {
-                if (adjMatrix[current][i] != Double.POSITIVE_INFINITY && !visited[i]) {
-                    traversalQueue.enqueue(i);
-                    visited[i] = true;
-                }
-            }
-        }
-        return resultList.iterator();
+    /**
+     * Number of neighbor slots to scan for a vertex. In dense mode every
+     * column is a slot and absent edges have infinite weight.
+     */
+    @Override
+    public int neighborCount(int index) {
+        return sparse ? degree[index] : numVertices;
     }
 
+    @Override
+    public int neighborAt(int index, int slot) {
+        return sparse ? adjIndex[index][slot] : slot;
+    }
 
+    @Override
+    public double neighborWeight(int index, int slot) {
+        return sparse ? adjWeight[index][slot] : adjMatrix[index][slot];
+    }
 
     @Override
-    public Iterator<T> iteratorDFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        Integer x;
-        boolean found;
-        LinkedStack<Integer> traversalStack = new LinkedStack<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-        boolean[] visited = new boolean[numVertices];
+    public boolean isDirected() {
+        return false;
+    }
 
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
+    /**
+     * Weight of the edge between two vertex indices, or infinity if there
+     * is no such edge.
+     */
+    @Override
+    public double edgeWeight(int index1, int index2) {
+        if (!sparse) {
+            return adjMatrix[index1][index2];
         }
+        int pos = findArc(index1, index2);
+        return pos >= 0 ? adjWeight[index1][pos] : Double.POSITIVE_INFINITY;
+    }
 
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
+    /**
+     * Weight of the edge between two vertices, or infinity if they are not
+     * adjacent. O(1) in dense mode, O(log degree) in sparse mode.
+     */
+    @Override
+    public double edgeWeight(T vertex1, T vertex2) {
+        int index1 = getIndex(vertex1);
+        int index2 = getIndex(vertex2);
+        if (!indexIsValid(index1) || !indexIsValid(index2)) {
+            return Double.POSITIVE_INFINITY;
         }
+        return edgeWeight(index1, index2);
+    }
 
-        traversalStack.push(startIndex);
-        resultList.addToRear(vertices[startIndex]);
-        visited[startIndex] = true;
+    public boolean isAdjacent(T vertex1, T vertex2) {
+        return edgeWeight(vertex1, vertex2) < Double.POSITIVE_INFINITY;
+    }
 
-        while (!traversalStack.isEmpty()) {
-            x = traversalStack.peek();
-            found = false;
+    /**
+     * Iterates over the vertices adjacent to the given one, with the weight
+     * of each connecting edge. Edge weights updated while iterating are
+     * seen by the iterator; adding or removing edges of the vertex is not
+     * supported during the iteration.
+     */
+    public Iterator<Neighbor<T>> iteratorNeighbors(T vertex) {
+        return new NeighborIterator(getIndex(vertex));
+    }
 
+    private class NeighborIterator implements Iterator<Neighbor<T>> {
+        private final int index;
+        private int slot;
 
-            for (int i = 0; (i < numVertices) && !found; i++) {
-                if ((adjMatrix[x][i] < Double.POSITIVE_INFINITY) && !visited[i]) {
-                    traversalStack.push(i);
-                    resultList.addToRear(vertices[i]);
-                    visited[i] = true;
-                    found = true;
-                }
+        NeighborIterator(int index) {
+            this.index = index;
+            this.slot = 0;
+            skipAbsent();
+        }
+
+        private void skipAbsent() {
+            if (!indexIsValid(index)) {
+                slot = 0;
+                return;
             }
-            if (!found && !traversalStack.isEmpty()) {
-                traversalStack.pop();
+            int n = neighborCount(index);
+            while (slot < n && neighborWeight(index, slot) == Double.POSITIVE_INFINITY) {
+                slot++;
             }
         }
-        return resultList.iterator();
-    }
 
-    @Override
-    public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex) {
-        int startIndex = getIndex(startVertex);
-        int targetIndex = getIndex(targetVertex);
-        ArrayUnorderedList<T> templist = new ArrayUnorderedList<>();
-
-        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
-            return templist.iterator();
+        @Override
+        public boolean hasNext() {
+            return indexIsValid(index) && slot < neighborCount(index);
         }
 
-        Iterator<Integer> it = iteratorShortestPathIndices(startIndex, targetIndex);
-        while (it.hasNext()) {
-            templist.addToRear(vertices[it.next()]);
+        @Override
+        public Neighbor<T> next() {
+            if (!hasNext()) throw new IllegalStateException();
+            Neighbor<T> result = new Neighbor<>(vertices[neighborAt(index, slot)], neighborWeight(index, slot));
+            slot++;
+            skipAbsent();
+            return result;
         }
-        return templist.iterator();
     }
 
-    protected Iterator<Integer> iteratorShortestPathIndices(int startIndex, int targetIndex) {
-        int index;
-        double weight;
-        int[] predecessor = new int[numVertices];
-        LinkedHeap<Double> traversalMinHeap = new LinkedHeap<>();
-        ArrayUnorderedList<Integer> resultList = new ArrayUnorderedList<>();
-        LinkedStack<Integer> stack = new LinkedStack<>();
+    @Override
+    public Iterator<T> iteratorBFS(T startVertex) {
+        return TraversalIterator.breadthFirst(this, vertices, getIndex(startVertex));
+    }
 
-        int[] pathIndex = new int[numVertices];
-        double[] pathWeight = new double[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            pathWeight[i] = Double.POSITIVE_INFINITY;
-        }
 
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
 
-        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)
-                || (startIndex == targetIndex) || isEmpty()) {
-            return resultList.iterator();
+    @Override
+    public Iterator<T> iteratorDFS(T startVertex) {
+        return TraversalIterator.depthFirst(this, vertices, getIndex(startVertex));
+    }
+
+    @Override
+    public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return new ArrayUnorderedList<T>().iterator();
         }
+        return GraphKernel.pathIterator(kernel.shortestPath(startIndex, targetIndex), vertices);
+    }
 
-        pathWeight[startIndex] = 0;
-        predecessor[startIndex] = -1;
-        visited[startIndex] = true;
-        weight = 0;
+    /**
+     * A* search guided by the given heuristic. With an admissible heuristic
+     * the path is as short as the one from iteratorShortestPath, but fewer
+     * vertices are usually expanded (see getLastExpandedCount).
+     */
+    public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex, Heuristic<T> heuristic) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return new ArrayUnorderedList<T>().iterator();
+        }
+        return GraphKernel.pathIterator(kernel.shortestPath(startIndex, targetIndex, indexed(heuristic)), vertices);
+    }
 
-        //Update the pathWeight for each vertex except the startVertex. Notice
-        //that all vertices not adjacent to the startVertex will have a
-        //pathWeight of infinity for now
-        for (int i = 0; i < numVertices; i++) {
-            if (!visited[i]) {
-                pathWeight[i] = pathWeight[startIndex] + adjMatrix[startIndex][i];
-                predecessor[i] = startIndex;
-                traversalMinHeap.addElement(pathWeight[i]);
-            }
+    /**
+     * A* search like iteratorShortestPath with a heuristic, returning the
+     * path with its edge weights and total cost.
+     */
+    public PathResult<T> shortestPath(T startVertex, T targetVertex, Heuristic<T> heuristic) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return PathResult.empty();
         }
+        return PathResult.of(this, startIndex, targetIndex,
+                kernel.shortestPath(startIndex, targetIndex, indexed(heuristic)));
+    }
 
-        do {
-            weight = traversalMinHeap.removeMin();
-            traversalMinHeap.clearHeap();
-            if (weight == Double.POSITIVE_INFINITY) // no possible path
-            {
-                return resultList.iterator();
-            } else {
-                index = getIndexOfAdjVertexWithWeightOf(visited, pathWeight, weight);
-                visited[index] = true;
+    /**
+     * The heuristic itself if it already works on indices, otherwise one
+     * that looks up the vertices of the indices.
+     */
+    private IndexedHeuristic<T> indexed(Heuristic<T> heuristic) {
+        if (heuristic instanceof IndexedHeuristic) {
+            return (IndexedHeuristic<T>) heuristic;
+        }
+        return new IndexedHeuristic<>() {
+            @Override
+            public double estimate(T vertex, T target) {
+                return heuristic.estimate(vertex, target);
             }
 
-            //Update the pathWeight for each vertex that has not been
-            //visited and is adjacent to the last vertex that was visited.
-            //Also, add each unvisited vertex to the heap
-            for (int i = 0; i < numVertices; i++) {
-                if (!visited[i]) {
-                    if ((adjMatrix[index][i] < Double.POSITIVE_INFINITY)
-                            && (pathWeight[index] + adjMatrix[index][i]) < pathWeight[i]) {
-                        pathWeight[i] = pathWeight[index] + adjMatrix[index][i];
-                        predecessor[i] = index;
-                    }
-                    traversalMinHeap.addElement(pathWeight[i]);
-                }
+            @Override
+            public double estimateIndex(int vertexIndex, int targetIndex) {
+                return heuristic.estimate(vertices[vertexIndex], vertices[targetIndex]);
             }
-        } while (!traversalMinHeap.isEmpty() && !visited[targetIndex]);
-
-        index = targetIndex;
-        stack.push(index);
-        do {
-            index = predecessor[index];
-            stack.push(index);
-        } while (index != startIndex);
+        };
+    }
 
-        while (!stack.isEmpty()) {
-            resultList.addToRear((stack.pop()));
-        }
+    /**
+     * Dijkstra from startIndex, see GraphKernel.dijkstra.
+     */
+    protected boolean dijkstra(int startIndex, int targetIndex, double[] pathWeight, int[] predecessor) {
+        return kernel.dijkstra(startIndex, targetIndex, pathWeight, predecessor);
+    }
 
-        return resultList.iterator();
+    /**
+     * Number of vertices removed from the heap by the last shortest path
+     * search, useful to compare Dijkstra, bidirectional Dijkstra and A*
+     * on the same query.
+     */
+    public int getLastExpandedCount() {
+        return kernel.getLastExpandedCount();
     }
 
-    protected int getIndexOfAdjVertexWithWeightOf(boolean[] visited, double[] pathWeight, double weight) {
-        for (int i = 0; i < numVertices; i++) {
-            if ((pathWeight[i] == weight) && !visited[i]) {
-                for (int j = 0; j < numVertices; j++) {
-                    if ((adjMatrix[i][j] < Double.POSITIVE_INFINITY) && visited[j]) {
-                        return i;
-                    }
-                }
-            }
+    @Override
+    public PathResult<T> shortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return PathResult.empty();
         }
-
-        return -1;  // should never get to here
+        return PathResult.of(this, startIndex, targetIndex, kernel.shortestPath(startIndex, targetIndex));
     }
 
     @Override
     public double shortestPathWeight(T startVertex, T targetVertex) {
         int startIndex = getIndex(startVertex);
         int targetIndex = getIndex(targetVertex);
-
         if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
-            return Double.POSITIVE_INFINITY; // Return infinity if vertices are invalid
+            return Double.POSITIVE_INFINITY;
         }
+        return kernel.shortestPathWeight(startIndex, targetIndex);
+    }
 
-        // Initialize distances to infinity and set the distance of the start vertex to 0
-        double[] distances = new double[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            distances[i] = Double.POSITIVE_INFINITY;
-        }
-        distances[startIndex] = 0;
-
-        // Initialize a priority queue to keep track of the vertices to visit
-        ArrayHeap<Integer> priorityQueue = new ArrayHeap<>();
-        priorityQueue.addElement(startIndex);
-
-        // Dijkstra's algorithm
-        while (!priorityQueue.isEmpty()) {
-            int currentVertex = priorityQueue.removeMin();
-
-            // Stop when we reach the target vertex
-            if (currentVertex == targetIndex) {
-                break;
-            }
-
-            for (int neighbor = 0; neighbor < numVertices; neighbor++) {
-                if (adjMatrix[currentVertex][neighbor] < Double.POSITIVE_INFINITY) {
-                    double potentialDistance = distances[currentVertex] + adjMatrix[currentVertex][neighbor];
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
 
-                    // If a shorter path is found, update the distances
-                    if (potentialDistance < distances[neighbor]) {
-                        distances[neighbor] = potentialDistance;
-                        priorityQueue.addElement(neighbor);
-                    }
-                }
-            }
-        }
+    /**
+     * Whether two vertices are in the same connected component, answered
+     * by the connectivity index in nearly constant time.
+     */
+    public boolean connected(T vertex1, T vertex2) {
+        return connectivity.connected(getIndex(vertex1), getIndex(vertex2));
+    }
 
-        // Check if a path was found
-        if (distances[targetIndex] == Double.POSITIVE_INFINITY) {
-            return Double.POSITIVE_INFINITY; // No path exists
-        } else {
-            return distances[targetIndex]; // Return the weight of the shortest path
-        }
+    public int componentCount() {
+        return connectivity.componentCount();
     }
 
-    @Override
-    public boolean isEmpty() {
-        return numVertices == 0;
+    /**
+     * @return an id shared by every vertex of the component of the given
+     * one, valid until the network changes, or -1 if it is not in the
+     * network
+     */
+    public int componentOf(T vertex) {
+        return connectivity.componentOf(getIndex(vertex));
     }
 
     @Override
@@ -377,23 +658,21 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
         if (isEmpty()) {
             return false;
         }
-        Iterator<T> it = iteratorBFS(vertices[0]);
-        int count = 0;
-        while (it.hasNext()) {
-            it.next();
-            count++;
-        }
-        return (count == numVertices);
+        return connectivity.componentCount() == 1;
     }
 
+    /**
+     * Number of vertices. With stable indices there can be empty slots
+     * below indexBound().
+     */
     @Override
     public int size() {
-        return numVertices;
+        return numVertices - freeSlots.size();
     }
 
     @Override
     public String toString() {
-        if (numVertices == 0)
+        if (isEmpty())
             return "Graph is empty";
 
         String result = new String("");
@@ -414,7 +693,7 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
             result += "" + i + "\t";
 
             for (int j = 0; j < numVertices; j++) {
-                if (adjMatrix[i][j] < Double.POSITIVE_INFINITY)
+                if (edgeWeight(i, j) < Double.POSITIVE_INFINITY)
                     result += "1 ";
                 else
                     result += "0 ";
@@ -428,8 +707,10 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
         result += "index\tvalue\n\n";
 
         for (int i = 0; i < numVertices; i++) {
-            result += "" + i + "\t";
-            result += vertices[i].toString() + "\n";
+            if (indexIsValid(i)) {
+                result += "" + i + "\t";
+                result += vertices[i].toString() + "\n";
+            }
         }
 
         /** Print the weights of the edges */
@@ -439,9 +720,9 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
 
         for (int i = 0; i < numVertices; i++) {
             for (int j = numVertices - 1; j > i; j--) {
-                if (adjMatrix[i][j] < Double.POSITIVE_INFINITY) {
+                if (edgeWeight(i, j) < Double.POSITIVE_INFINITY) {
                     result += i + " to " + j + "\t";
-                    result += adjMatrix[i][j] + "\n";
+                    result += edgeWeight(i, j) + "\n";
                 }
             }
         }
@@ -450,103 +731,31 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
         return result;
     }
 
+    /**
+     * Minimum spanning tree as a new sparse network with every vertex, in
+     * the same order, and the V - 1 edges of the tree. Empty if this
+     * network is empty or not connected.
+     */
     public NetworkBiDirectional<T> mstNetwork() {
-        int x, y;
-        int index;
-        double weight;
-        int[] edge = new int[2];
-        LinkedHeap<Double> minHeap = new LinkedHeap<Double>();
-        NetworkBiDirectional<T> resultGraph = new NetworkBiDirectional<T>();
-
-        if (isEmpty() || !isConnected()) {
+        NetworkBiDirectional<T> resultGraph = new NetworkBiDirectional<>(true);
+        if (!isConnected()) {
             return resultGraph;
         }
-        resultGraph.adjMatrix = new double[numVertices][numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; i++) {
-                resultGraph.adjMatrix[i][j] = Double.POSITIVE_INFINITY;
-            }
-            resultGraph.vertices = (T[]) (new Object[numVertices]);
-        }
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-        edge[0] = 0;
-        resultGraph.vertices[0] = this.vertices[0];
-        resultGraph.numVertices++;
-        visited[0] = true;
-
-        /**
-         * Add all edges, which are adjacent to the starting vertex, to the heap
-         */
-        for (int i = 0; i < numVertices; i++) {
-            minHeap.addElement(adjMatrix[0][i]);
-        }
-
-        while ((resultGraph.size() < this.size()) && !minHeap.isEmpty()) {
-            /**
-             * Get the edge with the smallest weight that has exactly one vertex
-             * already in the resultGraph
-             */
-            do {
-                weight = minHeap.removeMin();
-                edge = getEdgeWithWeightOf(weight, visited);
-            } while (!indexIsValid(edge[0]) || !indexIsValid(edge[1]));
-
-            x = edge[0];
-            y = edge[1];
-            if (!visited[x]) {
-                index = x;
-            } else {
-                index = y;
-            }
-
-            /**
-             * Add the new edge and vertex to the resultGraph
-             */
-            resultGraph.vertices[index] = this.vertices[index];
-            visited[index] = true;
-            resultGraph.numVertices++;
+        MinimumSpanningTree mst = MinimumSpanningTree.of(this);
 
-            resultGraph.adjMatrix[x][y] = this.adjMatrix[x][y];
-            resultGraph.adjMatrix[y][x] = this.adjMatrix[y][x];
-
-            /**
-             * Add all edges, that are adjacent to the newly added vertex, to
-             * the heap
-             */
-            for (int i = 0; i < numVertices; i++) {
-                if (!visited[i] && (this.adjMatrix[i][index]
-                        < Double.POSITIVE_INFINITY)) {
-                    edge[0] = index;
-                    edge[1] = i;
-                    minHeap.addElement(adjMatrix[index][i]);
-                }
+        int[] newIndex = new int[indexBound()];
+        for (int i = 0; i < indexBound(); i++) {
+            if (indexIsValid(i)) {
+                newIndex[i] = resultGraph.size();
+                resultGraph.addVertex(vertices[i]);
             }
         }
+        for (int k = 0; k < mst.edgeCount(); k++) {
+            resultGraph.addEdge(newIndex[mst.from(k)], newIndex[mst.to(k)], mst.weight(k));
+        }
         return resultGraph;
     }
 
-    protected int[] getEdgeWithWeightOf(double weight, boolean[] visited) {
-        int[] edge = new int[2];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; j++) {
-                if ((adjMatrix[i][j] == weight) && (visited[i] ^ visited[j])) {
-                    edge[0] = i;
-                    edge[1] = j;
-                    return edge;
-                }
-            }
-        }
-
-        /**
-         * Will only get to here if a valid edge is not found
-         */
-        edge[0] = -1;
-        edge[1] = -1;
-        return edge;
-    }
     public void setVertexOccupied(int vertexIndex, boolean occupied) {
         if (indexIsValid(vertexIndex)) {
             occupiedVertices[vertexIndex] = occupied;
@@ -554,7 +763,7 @@ public class NetworkBiDirectional<T> implements NetworkADT<T> {
     }
 
     public void printVertices() {
-        if (numVertices == 0) {
+        if (isEmpty()) {
             System.out.println("Graph Empty.");
             return;
         }
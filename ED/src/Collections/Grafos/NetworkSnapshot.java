@@ -0,0 +1,235 @@
+package Collections.Grafos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary snapshot of an IndexedNetwork: a vertex table and the edges in
+ * compressed sparse row (CSR) form, all in little-endian primitive arrays
+ * so the file can be memory-mapped and read in place.
+ *
+ * Layout, with the weights first so that they stay 8-byte aligned:
+ * <pre>
+ *  0  int     MAGIC
+ *  4  int     VERSION
+ *  8  int     flags (1 = directed)
+ * 12  int     vertex count V
+ * 16  long    arc count E
+ * 24  long    vertex bytes B
+ * 32  double  weight[E]
+ *     int     arcStart[V + 1]   arcs of vertex i are arcStart[i] .. arcStart[i+1]-1
+ *     int     target[E]
+ *     int     vertexStart[V + 1]
+ *     byte    vertexBytes[B]    as written by the VertexCodec
+ * </pre>
+ * Empty slots are left out, so vertices are renumbered 0 .. V-1 in index
+ * order; the targets of each vertex stay sorted. An undirected edge is
+ * stored as two arcs.
+ */
+public class NetworkSnapshot {
+    static final int MAGIC = 0x4E534E50;
+    static final int VERSION = 1;
+    static final int DIRECTED = 1;
+    static final int HEADER_BYTES = 32;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private NetworkSnapshot() {
+    }
+
+    /**
+     * Size in bytes of a snapshot with the given counts.
+     */
+    static long fileSize(int vertexCount, long arcCount, long vertexBytes) {
+        return HEADER_BYTES + arcCount * (Double.BYTES + Integer.BYTES)
+                + 2L * (vertexCount + 1) * Integer.BYTES + vertexBytes;
+    }
+
+    /**
+     * Writes a snapshot of the network.
+     *
+     * @throws IllegalArgumentException if the snapshot would not fit in one
+     *                                  memory-mapped buffer (2 GB)
+     */
+    public static <T> void save(IndexedNetwork<T> network, VertexCodec<T> codec, String path) throws IOException {
+        int bound = network.indexBound();
+        int[] newIndex = new int[bound];
+        int vertexCount = 0;
+        for (int i = 0; i < bound; i++) {
+            newIndex[i] = network.indexIsValid(i) ? vertexCount++ : -1;
+        }
+
+        byte[][] encoded = new byte[vertexCount][];
+        int[] arcStart = new int[vertexCount + 1];
+        long arcCount = 0;
+        long vertexBytes = 0;
+        for (int i = 0; i < bound; i++) {
+            int v = newIndex[i];
+            if (v == -1) {
+                continue;
+            }
+            encoded[v] = codec.encode(network.getVertex(i));
+            vertexBytes += encoded[v].length;
+            arcStart[v] = (int) arcCount;
+            for (int k = 0, n = network.neighborCount(i); k < n; k++) {
+                if (network.neighborWeight(i, k) < Double.POSITIVE_INFINITY) {
+                    arcCount++;
+                }
+            }
+        }
+        arcStart[vertexCount] = (int) arcCount;
+        if (fileSize(vertexCount, arcCount, vertexBytes) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Network too large for a snapshot");
+        }
+
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(network.isDirected() ? DIRECTED : 0);
+            out.putInt(vertexCount);
+            out.putLong(arcCount);
+            out.putLong(vertexBytes);
+
+            for (int i = 0; i < bound; i++) {
+                if (newIndex[i] == -1) {
+                    continue;
+                }
+                for (int k = 0, n = network.neighborCount(i); k < n; k++) {
+                    double w = network.neighborWeight(i, k);
+                    if (w < Double.POSITIVE_INFINITY) {
+                        out.putDouble(w);
+                    }
+                }
+            }
+            for (int start : arcStart) {
+                out.putInt(start);
+            }
+            for (int i = 0; i < bound; i++) {
+                if (newIndex[i] == -1) {
+                    continue;
+                }
+                for (int k = 0, n = network.neighborCount(i); k < n; k++) {
+                    if (network.neighborWeight(i, k) < Double.POSITIVE_INFINITY) {
+                        out.putInt(newIndex[network.neighborAt(i, k)]);
+                    }
+                }
+            }
+            int offset = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                out.putInt(offset);
+                offset += encoded[v].length;
+            }
+            out.putInt(offset);
+            for (byte[] bytes : encoded) {
+                out.putBytes(bytes);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Maps a snapshot file as a read-only network. The edges are read from
+     * the mapped file, with no copy on the heap; vertices are decoded the
+     * first time they are needed.
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static <T> MappedNetwork<T> open(String path, VertexCodec<T> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a network snapshot: " + path);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw new IOException("Not a network snapshot: " + path);
+            }
+            int flags = data.getInt(8);
+            int vertexCount = data.getInt(12);
+            long arcCount = data.getLong(16);
+            long vertexBytes = data.getLong(24);
+            if (vertexCount < 0 || arcCount < 0 || vertexBytes < 0
+                    || fileSize(vertexCount, arcCount, vertexBytes) != size) {
+                throw new IOException("Truncated or corrupt network snapshot: " + path);
+            }
+            return new MappedNetwork<>(data, (flags & DIRECTED) != 0, vertexCount, (int) arcCount, codec);
+        }
+    }
+
+    /**
+     * Reads a snapshot into an empty network, adding its vertices in order
+     * and then its edges. An undirected snapshot can be loaded into a
+     * directed network, with each edge as two arcs.
+     *
+     * @throws IllegalArgumentException if the network is not empty, or the
+     *                                  snapshot is directed and the network
+     *                                  is not
+     */
+    public static <T> void load(String path, VertexCodec<T> codec, IndexedNetwork<T> network) throws IOException {
+        MappedNetwork<T> snapshot = open(path, codec);
+        if (!network.isEmpty()) {
+            throw new IllegalArgumentException("Snapshots can only be loaded into an empty network");
+        }
+        if (snapshot.isDirected() && !network.isDirected()) {
+            throw new IllegalArgumentException("Cannot load a directed snapshot into an undirected network");
+        }
+        snapshot.copyTo(network);
+    }
+
+    /**
+     * Little-endian writer over a file channel.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package Collections.Grafos;
 
-import Collections.Heaps.ArrayHeap;
-import Collections.Heaps.LinkedHeap;
 import Collections.LinkedLists.LinkedList;
 import Collections.ListasIterador.Classes.ArrayUnorderedList;
 import Collections.Queue.ArrayQueue;
-import Collections.Queue.LinkedQueue;
-import Collections.Stacks.LinkedStack;
 
 import java.util.Iterator;
 
-public class NetworkUni<T> implements NetworkADT<T> {
+public class NetworkUni<T> implements IndexedNetwork<T> {
     protected final int DEFAULT_CAPACITY = 10;
     protected int numVertices;
     protected double[][] adjMatrix;
     protected T[] vertices;
+    protected VertexIndex<T> vertexIndex;
+    protected GraphKernel kernel;
+
+    /**
+     * Stable indices: removing a vertex leaves its slot empty instead of
+     * shifting the following vertices down, and addVertex fills empty
+     * slots first. numVertices is then one past the highest slot in use.
+     */
+    protected boolean stableIndices;
+    protected FreeSlots freeSlots;
 
     public NetworkUni() {
         numVertices = 0;
+        this.vertexIndex = new VertexIndex<>();
+        this.kernel = new GraphKernel(this);
+        this.freeSlots = new FreeSlots();
         this.vertices = (T[]) new Object[DEFAULT_CAPACITY];
         this.adjMatrix = new double[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
         for (int i = 0; i < DEFAULT_CAPACITY; i++) {
@@ -28,7 +37,47 @@ public class NetworkUni<T> implements NetworkADT<T> {
     }
 
     public boolean indexIsValid(int index) {
-        return (index < numVertices && index >= 0);
+        return (index < numVertices && index >= 0) && !freeSlots.isFree(index);
+    }
+
+    public boolean hasStableIndices() {
+        return stableIndices;
+    }
+
+    /**
+     * Turns stable indices on or off. Turning them off compacts the graph,
+     * so the indices of the remaining vertices may change.
+     */
+    public void setStableIndices(boolean stableIndices) {
+        if (!stableIndices) {
+            compact();
+        }
+        this.stableIndices = stableIndices;
+    }
+
+    @Override
+    public int indexBound() {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborCount(int index) {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborAt(int index, int slot) {
+        return slot;
+    }
+
+    @Override
+    public double neighborWeight(int index, int slot) {
+        return adjMatrix[index][slot];
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
     }
 
     protected void expandCapacity() {
@@ -48,34 +97,54 @@ public class NetworkUni<T> implements NetworkADT<T> {
     }
 
     public int getIndex(T vertex) {
-        for (int i = 0; i < numVertices; i++) {
-            if (vertices[i].equals(vertex)) {
-                return i;
-            }
-        }
-        return -1;
+        return vertexIndex.get(vertex);
+    }
+
+    public T getVertex(int index) {
+        return indexIsValid(index) ? vertices[index] : null;
     }
 
     @Override
     public void addVertex(T vertex) {
-        if (numVertices == vertices.length) {
-            expandCapacity();
-        }
+        int index = claimSlot();
+        vertices[index] = vertex;
+        vertexIndex.putIfAbsent(vertex, index);
+    }
 
-        vertices[numVertices] = vertex;
-        for (int i = 0; i <= numVertices; i++) {
-            adjMatrix[numVertices][i] = Double.POSITIVE_INFINITY;
-            adjMatrix[i][numVertices] = Double.POSITIVE_INFINITY;
+    /**
+     * Slot for a new vertex: an empty one if there is any, otherwise the
+     * next one at the end. Its edges are reset; a reused slot had all its
+     * edges removed already, so only the entries up to index matter.
+     */
+    private int claimSlot() {
+        int index = freeSlots.acquire();
+        if (index == -1) {
+            if (numVertices == vertices.length) {
+                expandCapacity();
+            }
+            index = numVertices++;
+        }
+        for (int i = 0; i <= index; i++) {
+            adjMatrix[index][i] = Double.POSITIVE_INFINITY;
+            adjMatrix[i][index] = Double.POSITIVE_INFINITY;
         }
-        numVertices++;
+        return index;
     }
 
     @Override
     public void removeVertex(T vertex) {
-        int indexToRemove = getIndex(vertex);
-        if (indexToRemove == -1) {
+        removeVertex(getIndex(vertex));
+    }
+
+    public void removeVertex(int indexToRemove) {
+        if (!indexIsValid(indexToRemove)) {
             return; // Vertex not found, exit the method
         }
+        if (stableIndices) {
+            removeVertexKeepingSlot(indexToRemove);
+            return;
+        }
+        T vertex = vertices[indexToRemove];
 
         // Shift vertices left to remove the vertex
         for (int i = indexToRemove; i < numVertices - 1; i++) {
@@ -97,6 +166,59 @@ public class NetworkUni<T> implements NetworkADT<T> {
         }
 
         numVertices--;
+        vertexIndex.removeShifted(vertex, indexToRemove, vertices, numVertices);
+    }
+
+    /**
+     * Drops the edges of a vertex and frees its slot, in O(V).
+     */
+    private void removeVertexKeepingSlot(int index) {
+        T removed = vertices[index];
+        for (int i = 0; i < numVertices; i++) {
+            adjMatrix[index][i] = Double.POSITIVE_INFINITY;
+            adjMatrix[i][index] = Double.POSITIVE_INFINITY;
+        }
+        vertices[index] = null;
+        freeSlots.release(index);
+        vertexIndex.removeAt(removed, index, vertices, numVertices);
+    }
+
+    /**
+     * Moves the vertices down over the empty slots, keeping their order.
+     *
+     * @return the new index of each old index, -1 for the empty slots
+     */
+    public int[] compact() {
+        int[] newIndex = new int[numVertices];
+        int count = 0;
+        for (int i = 0; i < numVertices; i++) {
+            newIndex[i] = freeSlots.isFree(i) ? -1 : count++;
+        }
+        if (freeSlots.isEmpty()) {
+            return newIndex;
+        }
+
+        // Slots only move down, so nothing is overwritten before it is read
+        for (int i = 0; i < numVertices; i++) {
+            int to = newIndex[i];
+            if (to == -1) {
+                continue;
+            }
+            vertices[to] = vertices[i];
+            for (int j = 0; j < numVertices; j++) {
+                if (newIndex[j] != -1) {
+                    adjMatrix[to][newIndex[j]] = adjMatrix[i][j];
+                }
+            }
+        }
+        for (int i = count; i < numVertices; i++) {
+            vertices[i] = null;
+        }
+
+        numVertices = count;
+        freeSlots.clear();
+        vertexIndex.rebuild(vertices, numVertices);
+        return newIndex;
     }
 
     @Override
@@ -131,241 +253,62 @@ public class NetworkUni<T> implements NetworkADT<T> {
 
     @Override
     public Iterator<T> iteratorBFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        Integer x;
-        LinkedQueue<Integer> traversalQueue = new LinkedQueue<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
-        }
-
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-
-        traversalQueue.enqueue(startIndex);
-        visited[startIndex] = true;
-
-        while (!traversalQueue.isEmpty()) {
-            x = traversalQueue.dequeue();
-            resultList.addToRear(vertices[x]);
-
-
-            for (int i = 0; i < numVertices; i++) {
-                if ((adjMatrix[x][i] < Double.POSITIVE_INFINITY) && !visited[i]) {
-                    traversalQueue.enqueue(i);
-                    visited[i] = true;
-                }
-            }
-        }
-        return resultList.iterator();
-    };
+        return TraversalIterator.breadthFirst(this, vertices, getIndex(startVertex));
+    }
 
     @Override
     public Iterator<T> iteratorDFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        Integer x;
-        boolean found;
-        LinkedStack<Integer> traversalStack = new LinkedStack<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-        boolean[] visited = new boolean[numVertices];
-
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
-        }
-
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-
-        traversalStack.push(startIndex);
-        resultList.addToRear(vertices[startIndex]);
-        visited[startIndex] = true;
-
-        while (!traversalStack.isEmpty()) {
-            x = traversalStack.peek();
-            found = false;
+        return TraversalIterator.depthFirst(this, vertices, getIndex(startVertex));
+    }
 
+    @Override
+    public double edgeWeight(int index1, int index2) {
+        return adjMatrix[index1][index2];
+    }
 
-            for (int i = 0; (i < numVertices) && !found; i++) {
-                if ((adjMatrix[x][i] < Double.POSITIVE_INFINITY) && !visited[i]) {
-                    traversalStack.push(i);
-                    resultList.addToRear(vertices[i]);
-                    visited[i] = true;
-                    found = true;
-                }
-            }
-            if (!found && !traversalStack.isEmpty()) {
-                traversalStack.pop();
-            }
+    @Override
+    public double edgeWeight(T vertex1, T vertex2) {
+        int index1 = getIndex(vertex1);
+        int index2 = getIndex(vertex2);
+        if (!indexIsValid(index1) || !indexIsValid(index2)) {
+            return Double.POSITIVE_INFINITY;
         }
-        return resultList.iterator();
+        return edgeWeight(index1, index2);
     }
 
     @Override
     public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex) {
         int startIndex = getIndex(startVertex);
         int targetIndex = getIndex(targetVertex);
-        ArrayUnorderedList<T> templist = new ArrayUnorderedList<>();
         if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
-            return templist.iterator();
+            return new ArrayUnorderedList<T>().iterator();
         }
-
-        Iterator<Integer> it = iteratorShortestPathIndices(startIndex, targetIndex);
-        while (it.hasNext()) {
-            templist.addToRear(vertices[it.next()]);
-        }
-        return templist.iterator();
+        return GraphKernel.pathIterator(kernel.shortestPath(startIndex, targetIndex), vertices);
     }
 
-    protected Iterator<Integer> iteratorShortestPathIndices(int startIndex, int targetIndex) {
-        int index;
-        double weight;
-        int[] predecessor = new int[numVertices];
-        LinkedHeap<Double> traversalMinHeap = new LinkedHeap<>();
-        ArrayUnorderedList<Integer> resultList = new ArrayUnorderedList<>();
-        LinkedStack<Integer> stack = new LinkedStack<>();
-
-        int[] pathIndex = new int[numVertices];
-        double[] pathWeight = new double[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            pathWeight[i] = Double.POSITIVE_INFINITY;
-        }
-
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-
-        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)
-                || (startIndex == targetIndex) || isEmpty()) {
-            return resultList.iterator();
-        }
-
-        pathWeight[startIndex] = 0;
-        predecessor[startIndex] = -1;
-        visited[startIndex] = true;
-        weight = 0;
-
-        //Update the pathWeight for each vertex except the startVertex. Notice
-        //that all vertices not adjacent to the startVertex will have a
-        //pathWeight of infinity for now
-        for (int i = 0; i < numVertices; i++) {
-            if (!visited[i]) {
-                pathWeight[i] = pathWeight[startIndex] + adjMatrix[startIndex][i];
-                predecessor[i] = startIndex;
-                traversalMinHeap.addElement(pathWeight[i]);
-            }
-        }
-
-        do {
-            weight = traversalMinHeap.removeMin();
-            traversalMinHeap.clearHeap();
-            if (weight == Double.POSITIVE_INFINITY) // no possible path
-            {
-                return resultList.iterator();
-            } else {
-                index = getIndexOfAdjVertexWithWeightOf(visited, pathWeight, weight);
-                visited[index] = true;
-            }
-
-            //Update the pathWeight for each vertex that has not been
-            //visited and is adjacent to the last vertex that was visited.
-            //Also, add each unvisited vertex to the heap
-            for (int i = 0; i < numVertices; i++) {
-                if (!visited[i]) {
-                    if ((adjMatrix[index][i] < Double.POSITIVE_INFINITY)
-                            && (pathWeight[index] + adjMatrix[index][i]) < pathWeight[i]) {
-                        pathWeight[i] = pathWeight[index] + adjMatrix[index][i];
-                        predecessor[i] = index;
-                    }
-                    traversalMinHeap.addElement(pathWeight[i]);
-                }
-            }
-        } while (!traversalMinHeap.isEmpty() && !visited[targetIndex]);
-
-        index = targetIndex;
-        stack.push(index);
-        do {
-            index = predecessor[index];
-            stack.push(index);
-        } while (index != startIndex);
-
-        while (!stack.isEmpty()) {
-            resultList.addToRear((stack.pop()));
-        }
-
-        return resultList.iterator();
-    }
-    protected int getIndexOfAdjVertexWithWeightOf(boolean[] visited, double[] pathWeight, double weight) {
-        for (int i = 0; i < numVertices; i++) {
-            if ((pathWeight[i] == weight) && !visited[i]) {
-                for (int j = 0; j < numVertices; j++) {
-                    if ((adjMatrix[i][j] < Double.POSITIVE_INFINITY) && visited[j]) {
-                        return i;
-                    }
-                }
-            }
+    @Override
+    public PathResult<T> shortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return PathResult.empty();
         }
-
-        return -1;  // should never get to here
+        return PathResult.of(this, startIndex, targetIndex, kernel.shortestPath(startIndex, targetIndex));
     }
 
     @Override
     public double shortestPathWeight(T startVertex, T targetVertex) {
         int startIndex = getIndex(startVertex);
         int targetIndex = getIndex(targetVertex);
-
         if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
-            return Double.POSITIVE_INFINITY; // Return infinity if vertices are invalid
-        }
-
-        // Initialize distances to infinity and set the distance of the start vertex to 0
-        double[] distances = new double[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            distances[i] = Double.POSITIVE_INFINITY;
-        }
-        distances[startIndex] = 0;
-
-        // Initialize a priority queue to keep track of the vertices to visit
-        ArrayHeap<Integer> priorityQueue = new ArrayHeap<>();
-        priorityQueue.addElement(startIndex);
-
-        // Dijkstra's algorithm
-        while (!priorityQueue.isEmpty()) {
-            int currentVertex = priorityQueue.removeMin();
-
-            // Stop when we reach the target vertex
-            if (currentVertex == targetIndex) {
-                break;
-            }
-
-            for (int neighbor = 0; neighbor < numVertices; neighbor++) {
-                if (adjMatrix[currentVertex][neighbor] < Double.POSITIVE_INFINITY) {
-                    double potentialDistance = distances[currentVertex] + adjMatrix[currentVertex][neighbor];
-
-                    // If a shorter path is found, update the distances
-                    if (potentialDistance < distances[neighbor]) {
-                        distances[neighbor] = potentialDistance;
-                        priorityQueue.addElement(neighbor);
-                    }
-                }
-            }
-        }
-
-        // Check if a path was found
-        if (distances[targetIndex] == Double.POSITIVE_INFINITY) {
-            return Double.POSITIVE_INFINITY; // No path exists
-        } else {
-            return distances[targetIndex]; // Return the weight of the shortest path
+            return Double.POSITIVE_INFINITY;
         }
+        return kernel.shortestPathWeight(startIndex, targetIndex);
     }
 
     @Override
     public boolean isEmpty() {
-        return numVertices==0;
+        return size() == 0;
     }
 
     @Override
@@ -373,23 +316,33 @@ public class NetworkUni<T> implements NetworkADT<T> {
         if (isEmpty()) {
             return false;
         }
-        Iterator<T> it = iteratorBFS(vertices[0]);
-        int count = 0;
-        while (it.hasNext()) {
-            it.next();
-            count++;
+        return FrontierBFS.reachableCount(this, firstIndex()) == size();
+    }
+
+    /**
+     * Lowest index in use, or -1 if the graph is empty.
+     */
+    protected int firstIndex() {
+        for (int i = 0; i < numVertices; i++) {
+            if (!freeSlots.isFree(i)) {
+                return i;
+            }
         }
-        return (count == numVertices);
+        return -1;
     }
 
+    /**
+     * Number of vertices. With stable indices there can be empty slots
+     * below indexBound().
+     */
     @Override
     public int size() {
-        return numVertices;
+        return numVertices - freeSlots.size();
     }
 
     @Override
     public String toString() {
-        if (numVertices == 0)
+        if (isEmpty())
             return "Graph is empty";
 
         String result = new String("");
@@ -428,8 +381,10 @@ public class NetworkUni<T> implements NetworkADT<T> {
 
         for (int i = 0; i < numVertices; i++)
         {
-            result += "" + i + "\t";
-            result += vertices[i].toString() + "\n";
+            if (indexIsValid(i)) {
+                result += "" + i + "\t";
+                result += vertices[i].toString() + "\n";
+            }
         }
 
         /** Print the weights of the edges */
@@ -453,101 +408,32 @@ public class NetworkUni<T> implements NetworkADT<T> {
         return result;
     }
 
+    /**
+     * Minimum spanning tree of the underlying undirected graph (each arc
+     * is a candidate edge), as a new undirected network with every vertex,
+     * in the same order. Empty if this network is empty or not connected
+     * when arcs are followed both ways.
+     */
     public NetworkBi<T> mstNetwork() {
-        int x, y;
-        int index;
-        double weight;
-        int[] edge = new int[2];
-        LinkedHeap<Double> minHeap = new LinkedHeap<Double>();
-        NetworkBi<T> resultGraph = new NetworkBi<T>();
-
-        if (isEmpty() || !isConnected()) {
+        NetworkBi<T> resultGraph = new NetworkBi<>();
+        if (isEmpty()) {
             return resultGraph;
         }
-        resultGraph.adjMatrix = new double[numVertices][numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; i++) {
-                resultGraph.adjMatrix[i][j] = Double.POSITIVE_INFINITY;
-            }
-            resultGraph.vertices = (T[]) (new Object[numVertices]);
-        }
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
+        MinimumSpanningTree mst = MinimumSpanningTree.of(this);
+        if (mst.edgeCount() != size() - 1) {
+            return resultGraph; // not connected
         }
-        edge[0] = 0;
-        resultGraph.vertices[0] = this.vertices[0];
-        resultGraph.numVertices++;
-        visited[0] = true;
-
-        /**
-         * Add all edges, which are adjacent to the starting vertex, to the heap
-         */
-        for (int i = 0; i < numVertices; i++) {
-            minHeap.addElement(adjMatrix[0][i]);
-        }
-
-        while ((resultGraph.size() < this.size()) && !minHeap.isEmpty()) {
-            /**
-             * Get the edge with the smallest weight that has exactly one vertex
-             * already in the resultGraph
-             */
-            do {
-                weight = minHeap.removeMin();
-                edge = getEdgeWithWeightOf(weight, visited);
-            } while (!indexIsValid(edge[0]) || !indexIsValid(edge[1]));
-
-            x = edge[0];
-            y = edge[1];
-            if (!visited[x]) {
-                index = x;
-            } else {
-                index = y;
-            }
 
-            /**
-             * Add the new edge and vertex to the resultGraph
-             */
-            resultGraph.vertices[index] = this.vertices[index];
-            visited[index] = true;
-            resultGraph.numVertices++;
-
-            resultGraph.adjMatrix[x][y] = this.adjMatrix[x][y];
-            resultGraph.adjMatrix[y][x] = this.adjMatrix[y][x];
-
-            /**
-             * Add all edges, that are adjacent to the newly added vertex, to
-             * the heap
-             */
-            for (int i = 0; i < numVertices; i++) {
-                if (!visited[i] && (this.adjMatrix[i][index]
-                        < Double.POSITIVE_INFINITY)) {
-                    edge[0] = index;
-                    edge[1] = i;
-                    minHeap.addElement(adjMatrix[index][i]);
-                }
+        int[] newIndex = new int[indexBound()];
+        for (int i = 0; i < indexBound(); i++) {
+            if (indexIsValid(i)) {
+                newIndex[i] = resultGraph.size();
+                resultGraph.addVertex(vertices[i]);
             }
         }
-        return resultGraph;
-    }
-    protected int[] getEdgeWithWeightOf(double weight, boolean[] visited) {
-        int[] edge = new int[2];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; j++) {
-                if ((adjMatrix[i][j] == weight) && (visited[i] ^ visited[j])) {
-                    edge[0] = i;
-                    edge[1] = j;
-                    return edge;
-                }
-            }
+        for (int k = 0; k < mst.edgeCount(); k++) {
+            resultGraph.addEdge(newIndex[mst.from(k)], newIndex[mst.to(k)], mst.weight(k));
         }
-
-        /**
-         * Will only get to here if a valid edge is not found
-         */
-        edge[0] = -1;
-        edge[1] = -1;
-        return edge;
+        return resultGraph;
     }
-
 }
@@ -1,22 +1,21 @@
 package Collections.Grafos;
 
-import Collections.Exceptions.EmptyCollectionException;
-import Collections.Heaps.ArrayHeap;
-import Collections.Heaps.LinkedHeap;
 import Collections.ListasIterador.Classes.ArrayUnorderedList;
-import Collections.Queue.LinkedQueue;
-import Collections.Stacks.LinkedStack;
 
 import java.util.Iterator;
 
-public class NetworkUniDirectional<T> implements NetworkADT<T> {
+public class NetworkUniDirectional<T> implements IndexedNetwork<T> {
     protected final int DEFAULT_CAPACITY = 10;
     protected int numVertices;
     protected double[][] adjMatrix;
     protected T[] vertices;
+    protected VertexIndex<T> vertexIndex;
+    protected GraphKernel kernel;
 
     public NetworkUniDirectional() {
         numVertices = 0;
+        this.vertexIndex = new VertexIndex<>();
+        this.kernel = new GraphKernel(this);
         this.vertices = (T[]) new Object[DEFAULT_CAPACITY];
         this.adjMatrix = new double[DEFAULT_CAPACITY][DEFAULT_CAPACITY];
         for (int i = 0; i < DEFAULT_CAPACITY; i++) {
@@ -30,6 +29,31 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
         return (index < numVertices && index >= 0);
     }
 
+    @Override
+    public int indexBound() {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborCount(int index) {
+        return numVertices;
+    }
+
+    @Override
+    public int neighborAt(int index, int slot) {
+        return slot;
+    }
+
+    @Override
+    public double neighborWeight(int index, int slot) {
+        return adjMatrix[index][slot];
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
     protected void expandCapacity() {
         T[] largerVertices = (T[]) (new Object[vertices.length * 2]);
         double[][] largerAdjMatrix = new double[vertices.length * 2][vertices.length * 2];
@@ -45,12 +69,11 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
     }
 
     public int getIndex(T vertex) {
-        for (int i = 0; i < numVertices; i++) {
-            if (vertices[i].equals(vertex)) {
-                return i;
-            }
-        }
-        return -1;
+        return vertexIndex.get(vertex);
+    }
+
+    public T getVertex(int index) {
+        return indexIsValid(index) ? vertices[index] : null;
     }
 
     @Override
@@ -60,6 +83,7 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
         }
 
         vertices[numVertices] = vertex;
+        vertexIndex.putIfAbsent(vertex, numVertices);
         for (int i = 0; i <= numVertices; i++) {
             adjMatrix[numVertices][i] = Double.POSITIVE_INFINITY;
             adjMatrix[i][numVertices] = Double.POSITIVE_INFINITY;
@@ -94,6 +118,7 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
         }
 
         numVertices--;
+        vertexIndex.removeShifted(vertex, indexToRemove, vertices, numVertices);
     }
 
 
@@ -129,153 +154,58 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
 
     @Override
     public Iterator<T> iteratorBFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        Integer x;
-        LinkedQueue<Integer> traversalQueue = new LinkedQueue<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
-        }
-
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-
-        traversalQueue.enqueue(startIndex);
-        visited[startIndex] = true;
-
-        while (!traversalQueue.isEmpty()) {
-            x = traversalQueue.dequeue();
-            resultList.addToRear(vertices[x]);
-
-
-            for (int i = 0; i < numVertices; i++) {
-                if ((adjMatrix[x][i] < Double.POSITIVE_INFINITY) && !visited[i]) {
-                    traversalQueue.enqueue(i);
-                    visited[i] = true;
-                }
-            }
-        }
-        return resultList.iterator();
-    };
+        return TraversalIterator.breadthFirst(this, vertices, getIndex(startVertex));
+    }
 
     @Override
     public Iterator<T> iteratorDFS(T startVertex) {
-        int startIndex = getIndex(startVertex);
-        Integer x;
-        boolean found;
-        LinkedStack<Integer> traversalStack = new LinkedStack<>();
-        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
-        boolean[] visited = new boolean[numVertices];
-
-        if (!indexIsValid(startIndex)) {
-            return resultList.iterator();
-        }
-
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-
-        traversalStack.push(startIndex);
-        resultList.addToRear(vertices[startIndex]);
-        visited[startIndex] = true;
-
-        while (!traversalStack.isEmpty()) {
-            x = traversalStack.peek();
-            found = false;
+        return TraversalIterator.depthFirst(this, vertices, getIndex(startVertex));
+    }
 
+    @Override
+    public double edgeWeight(int index1, int index2) {
+        return adjMatrix[index1][index2];
+    }
 
-            for (int i = 0; (i < numVertices) && !found; i++) {
-                if ((adjMatrix[x][i] < Double.POSITIVE_INFINITY) && !visited[i]) {
-                    traversalStack.push(i);
-                    resultList.addToRear(vertices[i]);
-                    visited[i] = true;
-                    found = true;
-                }
-            }
-            if (!found && !traversalStack.isEmpty()) {
-                traversalStack.pop();
-            }
+    @Override
+    public double edgeWeight(T vertex1, T vertex2) {
+        int index1 = getIndex(vertex1);
+        int index2 = getIndex(vertex2);
+        if (!indexIsValid(index1) || !indexIsValid(index2)) {
+            return Double.POSITIVE_INFINITY;
         }
-        return resultList.iterator();
+        return edgeWeight(index1, index2);
     }
 
     @Override
     public Iterator<T> iteratorShortestPath(T startVertex, T targetVertex) {
         int startIndex = getIndex(startVertex);
         int targetIndex = getIndex(targetVertex);
-
-        Iterator<Integer> pathIndices = iteratorShortestPathIndices(startIndex, targetIndex);
-        ArrayUnorderedList<T> path = new ArrayUnorderedList<>();
-
-        while (pathIndices.hasNext()) {
-            path.addToRear(vertices[pathIndices.next()]);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return new ArrayUnorderedList<T>().iterator();
         }
-
-        return path.iterator();
+        return GraphKernel.pathIterator(kernel.shortestPath(startIndex, targetIndex), vertices);
     }
 
-    protected Iterator<Integer> iteratorShortestPathIndices(int startIndex, int targetIndex) {
-        double[] distances = new double[numVertices];
-        int[] previous = new int[numVertices];
-        ArrayHeap<Double> heap = new ArrayHeap<>();
-
-        for (int i = 0; i < numVertices; i++) {
-            distances[i] = Double.POSITIVE_INFINITY;
-            previous[i] = -1;
-        }
-        distances[startIndex] = 0;
-        heap.addElement((double) startIndex);
-
-        while (!heap.isEmpty()) {
-            int currentVertex = heap.removeMin().intValue();
-
-            for (int neighbor = 0; neighbor < numVertices; neighbor++) {
-                if (adjMatrix[currentVertex][neighbor] < Double.POSITIVE_INFINITY) {
-                    double potentialDistance = distances[currentVertex] + adjMatrix[currentVertex][neighbor];
-                    if (potentialDistance < distances[neighbor]) {
-                        distances[neighbor] = potentialDistance;
-                        previous[neighbor] = currentVertex;
-                        heap.addElement((double) neighbor);
-                    }
-                }
-            }
-        }
-
-        ArrayUnorderedList<Integer> path = new ArrayUnorderedList<>();
-        for (int vertex = targetIndex; vertex != -1 && vertex < previous.length; vertex = (vertex == -1) ? -1 : previous[vertex]) {
-            path.addToFront(vertex);
-        }
-
-        if (distances[targetIndex] == Double.POSITIVE_INFINITY) {
-            return new ArrayUnorderedList<Integer>().iterator(); // No path exists
+    @Override
+    public PathResult<T> shortestPath(T startVertex, T targetVertex) {
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return PathResult.empty();
         }
-
-        return path.iterator();
+        return PathResult.of(this, startIndex, targetIndex, kernel.shortestPath(startIndex, targetIndex));
     }
 
     @Override
     public double shortestPathWeight(T startVertex, T targetVertex) {
-            if (isEmpty()) throw new EmptyCollectionException("Network is empty");
-            int startIndex = getIndex(startVertex);
-            int targetIndex = getIndex(targetVertex);
-
-            double result = 0;
-            int index1, index2;
-            Iterator<Integer> it = iteratorShortestPathIndices(startIndex, targetIndex);
-            if (!it.hasNext()) return Double.POSITIVE_INFINITY;
-
-            index1 = it.next();
-            while (it.hasNext()) {
-                index2 = it.next();
-                result += adjMatrix[index1][index2];
-                index1 = index2;
-            }
-
-            return result;
+        int startIndex = getIndex(startVertex);
+        int targetIndex = getIndex(targetVertex);
+        if (!indexIsValid(startIndex) || !indexIsValid(targetIndex)) {
+            return Double.POSITIVE_INFINITY;
         }
+        return kernel.shortestPathWeight(startIndex, targetIndex);
+    }
 
     @Override
     public boolean isEmpty() {
@@ -287,13 +217,7 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
         if (isEmpty()) {
             return false;
         }
-        Iterator<T> it = iteratorBFS(vertices[0]);
-        int count = 0;
-        while (it.hasNext()) {
-            it.next();
-            count++;
-        }
-        return (count == numVertices);
+        return FrontierBFS.reachableCount(this, 0) == numVertices;
     }
 
     @Override
@@ -360,101 +284,37 @@ public class NetworkUniDirectional<T> implements NetworkADT<T> {
         return result;
     }
 
+    /**
+     * Minimum spanning tree of the underlying undirected graph (each arc
+     * is a candidate edge), with every vertex in the same order. The arcs
+     * between the two ends of each tree edge are copied with their
+     * weights. Empty if this network is empty or not connected when arcs
+     * are followed both ways.
+     */
     public NetworkUniDirectional<T> mstNetwork() {
-        int x, y;
-        int index;
-        double weight;
-        int[] edge = new int[2];
-        LinkedHeap<Double> minHeap = new LinkedHeap<Double>();
-        NetworkUniDirectional<T> resultGraph = new NetworkUniDirectional<T>();
-
-        if (isEmpty() || !isConnected()) {
+        NetworkUniDirectional<T> resultGraph = new NetworkUniDirectional<>();
+        if (isEmpty()) {
             return resultGraph;
         }
-        resultGraph.adjMatrix = new double[numVertices][numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; i++) {
-                resultGraph.adjMatrix[i][j] = Double.POSITIVE_INFINITY;
-            }
-            resultGraph.vertices = (T[]) (new Object[numVertices]);
-        }
-        boolean[] visited = new boolean[numVertices];
-        for (int i = 0; i < numVertices; i++) {
-            visited[i] = false;
-        }
-        edge[0] = 0;
-        resultGraph.vertices[0] = this.vertices[0];
-        resultGraph.numVertices++;
-        visited[0] = true;
-
-        /**
-         * Add all edges, which are adjacent to the starting vertex, to the heap
-         */
-        for (int i = 0; i < numVertices; i++) {
-            minHeap.addElement(adjMatrix[0][i]);
+        MinimumSpanningTree mst = MinimumSpanningTree.of(this);
+        if (mst.edgeCount() != size() - 1) {
+            return resultGraph; // not connected
         }
 
-        while ((resultGraph.size() < this.size()) && !minHeap.isEmpty()) {
-            /**
-             * Get the edge with the smallest weight that has exactly one vertex
-             * already in the resultGraph
-             */
-            do {
-                weight = minHeap.removeMin();
-                edge = getEdgeWithWeightOf(weight, visited);
-            } while (!indexIsValid(edge[0]) || !indexIsValid(edge[1]));
-
-            x = edge[0];
-            y = edge[1];
-            if (!visited[x]) {
-                index = x;
-            } else {
-                index = y;
-            }
-
-            /**
-             * Add the new edge and vertex to the resultGraph
-             */
-            resultGraph.vertices[index] = this.vertices[index];
-            visited[index] = true;
-            resultGraph.numVertices++;
-
-            resultGraph.adjMatrix[x][y] = this.adjMatrix[x][y];
-            resultGraph.adjMatrix[y][x] = this.adjMatrix[y][x];
-
-            /**
-             * Add all edges, that are adjacent to the newly added vertex, to
-             * the heap
-             */
-            for (int i = 0; i < numVertices; i++) {
-                if (!visited[i] && (this.adjMatrix[i][index]
-                        < Double.POSITIVE_INFINITY)) {
-                    edge[0] = index;
-                    edge[1] = i;
-                    minHeap.addElement(adjMatrix[index][i]);
-                }
+        int[] newIndex = new int[indexBound()];
+        for (int i = 0; i < indexBound(); i++) {
+            if (indexIsValid(i)) {
+                newIndex[i] = resultGraph.size();
+                resultGraph.addVertex(vertices[i]);
             }
         }
-        return resultGraph;
-    }
-    protected int[] getEdgeWithWeightOf(double weight, boolean[] visited) {
-        int[] edge = new int[2];
-        for (int i = 0; i < numVertices; i++) {
-            for (int j = 0; j < numVertices; j++) {
-                if ((adjMatrix[i][j] == weight) && (visited[i] ^ visited[j])) {
-                    edge[0] = i;
-                    edge[1] = j;
-                    return edge;
-                }
-            }
+        for (int k = 0; k < mst.edgeCount(); k++) {
+            int x = mst.from(k);
+            int y = mst.to(k);
+            resultGraph.adjMatrix[newIndex[x]][newIndex[y]] = adjMatrix[x][y];
+            resultGraph.adjMatrix[newIndex[y]][newIndex[x]] = adjMatrix[y][x];
         }
-
-        /**
-         * Will only get to here if a valid edge is not found
-         */
-        edge[0] = -1;
-        edge[1] = -1;
-        return edge;
+        return resultGraph;
     }
 }
 
@@ -0,0 +1,100 @@
+package Collections.Grafos;
+
+import java.util.Iterator;
+
+/**
+ * Result of one shortest path search: the vertices of the path, the weight
+ * of each edge along it and the total cost, so callers that need more than
+ * the vertex sequence do not have to search again or look edges up.
+ * An empty result means there is no path.
+ */
+public class PathResult<T> {
+    protected final T[] vertices;
+    protected final double[] edgeWeights;
+    protected final double totalWeight;
+
+    protected PathResult(T[] vertices, double[] edgeWeights, double totalWeight) {
+        this.vertices = vertices;
+        this.edgeWeights = edgeWeights;
+        this.totalWeight = totalWeight;
+    }
+
+    public static <T> PathResult<T> empty() {
+        @SuppressWarnings("unchecked")
+        T[] none = (T[]) new Object[0];
+        return new PathResult<>(none, new double[0], Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Builds the result of a path of indices found in the network, reading
+     * the weight of each of its edges. The index searches return no path
+     * from a vertex to itself; here that is the path of that one vertex.
+     */
+    static <T> PathResult<T> of(IndexedNetwork<T> network, int startIndex, int targetIndex, int[] path) {
+        if (path.length == 0 && startIndex == targetIndex) {
+            path = new int[]{startIndex};
+        }
+        if (path.length == 0) {
+            return empty();
+        }
+        @SuppressWarnings("unchecked")
+        T[] vertices = (T[]) new Object[path.length];
+        double[] edgeWeights = new double[path.length - 1];
+        double total = 0;
+        for (int i = 0; i < path.length; i++) {
+            vertices[i] = network.getVertex(path[i]);
+            if (i > 0) {
+                edgeWeights[i - 1] = network.edgeWeight(path[i - 1], path[i]);
+                total += edgeWeights[i - 1];
+            }
+        }
+        return new PathResult<>(vertices, edgeWeights, total);
+    }
+
+    public boolean isEmpty() {
+        return vertices.length == 0;
+    }
+
+    /**
+     * Number of vertices in the path, start and target included.
+     */
+    public int size() {
+        return vertices.length;
+    }
+
+    public T getVertex(int position) {
+        return vertices[position];
+    }
+
+    /**
+     * Weight of the edge from the vertex at position to the next one.
+     */
+    public double getEdgeWeight(int position) {
+        return edgeWeights[position];
+    }
+
+    /**
+     * Sum of the edge weights: 0 for a path from a vertex to itself,
+     * infinity if there is no path.
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < vertices.length;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new IllegalStateException();
+                return vertices[next++];
+            }
+        };
+    }
+}
@@ -0,0 +1,252 @@
+package Collections.Grafos;
+
+import Collections.Heaps.IndexedMinHeap;
+import Collections.ListasIterador.Classes.ArrayUnorderedList;
+
+import java.util.Iterator;
+
+/**
+ * Shortest path tree rooted at one vertex of an undirected network:
+ * the distance of every vertex to the root and the next vertex on the way
+ * to it. When an edge weight drops, edgeDecreased repairs the tree
+ * (dynamic SSSP, as in Ramalingam and Reps) touching only the vertices
+ * whose distance actually improves. When one rises, edgeIncreased only
+ * searches again the part of the tree that hung from that edge, found
+ * through the children lists of the tree.
+ */
+public class ShortestPathTree<T> {
+    protected final NetworkBiDirectional<T> network;
+    protected final int root;
+    protected final int numVertices;
+    protected final double[] distance;
+    protected final int[] nextHop;
+    protected final IndexedMinHeap heap;
+
+    // Children of each vertex in the tree, as linked lists threaded
+    // through the arrays; -1 ends a list
+    protected final int[] firstChild;
+    protected final int[] nextSibling;
+    protected final int[] previousSibling;
+
+    // Workspace of edgeIncreased
+    private final int[] subtree;
+    private final boolean[] inSubtree;
+
+    public ShortestPathTree(NetworkBiDirectional<T> network, int rootIndex) {
+        if (!network.indexIsValid(rootIndex)) {
+            throw new IllegalArgumentException("Invalid root index: " + rootIndex);
+        }
+        this.network = network;
+        this.root = rootIndex;
+        this.numVertices = network.indexBound();
+        this.distance = new double[numVertices];
+        this.nextHop = new int[numVertices];
+        this.heap = new IndexedMinHeap(numVertices);
+        network.dijkstra(rootIndex, -1, distance, nextHop);
+
+        this.firstChild = new int[numVertices];
+        this.nextSibling = new int[numVertices];
+        this.previousSibling = new int[numVertices];
+        this.subtree = new int[numVertices];
+        this.inSubtree = new boolean[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            firstChild[i] = -1;
+        }
+        for (int i = 0; i < numVertices; i++) {
+            if (nextHop[i] != -1) {
+                link(i, nextHop[i]);
+            }
+        }
+    }
+
+    public int getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return numVertices;
+    }
+
+    public double distance(int index) {
+        return distance[index];
+    }
+
+    /**
+     * @return the vertex after index on a shortest path to the root, or -1
+     * for the root itself and for vertices that cannot reach it
+     */
+    public int nextHop(int index) {
+        return nextHop[index];
+    }
+
+    /**
+     * @return the vertex after index on a shortest path to the root, or
+     * null for the root itself and for vertices that cannot reach it
+     */
+    public T nextVertex(int index) {
+        if (index < 0 || index >= numVertices || nextHop[index] == -1) {
+            return null;
+        }
+        return network.vertices[nextHop[index]];
+    }
+
+    /**
+     * Path from the given vertex to the root, empty if the vertex is the
+     * root or cannot reach it.
+     */
+    public Iterator<T> iteratorPathToRoot(int index) {
+        ArrayUnorderedList<T> resultList = new ArrayUnorderedList<>();
+        if (index < 0 || index >= numVertices || nextHop[index] == -1) {
+            return resultList.iterator();
+        }
+        resultList.addToRear(network.vertices[index]);
+        while (index != root) {
+            index = nextHop[index];
+            resultList.addToRear(network.vertices[index]);
+        }
+        return resultList.iterator();
+    }
+
+    /**
+     * Path from the given vertex to the root with its edge weights: just
+     * the root for the root itself, empty if the vertex cannot reach it.
+     */
+    public PathResult<T> pathToRoot(int index) {
+        if (index < 0 || index >= numVertices || (nextHop[index] == -1 && index != root)) {
+            return PathResult.empty();
+        }
+        int length = 1;
+        for (int i = index; i != root; i = nextHop[i]) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = index;
+        for (int k = 1; k < length; k++) {
+            path[k] = nextHop[path[k - 1]];
+        }
+        return PathResult.of(network, index, root, path);
+    }
+
+    /**
+     * Repairs the tree after the edge between two vertices got the given
+     * (lower) weight, or was added with it.
+     *
+     * @return the number of vertices whose distance changed
+     */
+    public int edgeDecreased(int index1, int index2, double weight) {
+        heap.clear();
+        relax(index1, index2, weight);
+        relax(index2, index1, weight);
+
+        int changed = 0;
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            changed++;
+            for (int k = 0, n = network.neighborCount(index); k < n; k++) {
+                double w = network.neighborWeight(index, k);
+                if (w < Double.POSITIVE_INFINITY) {
+                    relax(network.neighborAt(index, k), index, w);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Repairs the tree after the edge between two vertices got a higher
+     * weight, or was removed. Nothing changes unless the edge is in the
+     * tree; otherwise the vertices below it lose their distance and are
+     * searched again from the neighbors that kept theirs.
+     *
+     * @return the number of vertices whose path was searched again
+     */
+    public int edgeIncreased(int index1, int index2) {
+        int child;
+        if (nextHop[index1] == index2) {
+            child = index1;
+        } else if (nextHop[index2] == index1) {
+            child = index2;
+        } else {
+            return 0;
+        }
+
+        unlink(child);
+        nextHop[child] = -1;
+        int affected = 0;
+        subtree[affected++] = child;
+        for (int k = 0; k < affected; k++) {
+            int index = subtree[k];
+            for (int c = firstChild[index]; c != -1; c = nextSibling[c]) {
+                subtree[affected++] = c;
+            }
+            firstChild[index] = -1;
+            nextHop[index] = -1;
+            distance[index] = Double.POSITIVE_INFINITY;
+            inSubtree[index] = true;
+        }
+
+        heap.clear();
+        for (int k = 0; k < affected; k++) {
+            int i = subtree[k];
+            for (int slot = 0, n = network.neighborCount(i); slot < n; slot++) {
+                int neighbor = network.neighborAt(i, slot);
+                double w = network.neighborWeight(i, slot);
+                if (!inSubtree[neighbor] && w < Double.POSITIVE_INFINITY) {
+                    relax(i, neighbor, w);
+                }
+            }
+        }
+        for (int k = 0; k < affected; k++) {
+            inSubtree[subtree[k]] = false;
+        }
+        while (!heap.isEmpty()) {
+            int index = heap.removeMin();
+            for (int k = 0, n = network.neighborCount(index); k < n; k++) {
+                double w = network.neighborWeight(index, k);
+                if (w < Double.POSITIVE_INFINITY) {
+                    relax(network.neighborAt(index, k), index, w);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Lets vertex go through towards, if that shortens its distance.
+     */
+    private void relax(int vertex, int towards, double weight) {
+        double candidate = distance[towards] + weight;
+        if (candidate < distance[vertex]) {
+            distance[vertex] = candidate;
+            if (nextHop[vertex] != -1) {
+                unlink(vertex);
+            }
+            nextHop[vertex] = towards;
+            link(vertex, towards);
+            heap.insertOrDecrease(vertex, candidate);
+        }
+    }
+
+    private void link(int vertex, int parent) {
+        int first = firstChild[parent];
+        nextSibling[vertex] = first;
+        previousSibling[vertex] = -1;
+        if (first != -1) {
+            previousSibling[first] = vertex;
+        }
+        firstChild[parent] = vertex;
+    }
+
+    private void unlink(int vertex) {
+        int previous = previousSibling[vertex];
+        int next = nextSibling[vertex];
+        if (previous == -1) {
+            firstChild[nextHop[vertex]] = next;
+        } else {
+            nextSibling[previous] = next;
+        }
+        if (next != -1) {
+            previousSibling[next] = previous;
+        }
+    }
+}
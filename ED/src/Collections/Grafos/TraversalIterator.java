@@ -0,0 +1,164 @@
+package Collections.Grafos;
+
+import java.util.Iterator;
+
+/**
+ * Breadth-first or depth-first traversal that advances one vertex per call
+ * to next(). Nothing is computed ahead: a caller that stops after k
+ * vertices only pays for expanding those k vertices, and the queue, stack
+ * and visited set grow with the vertices reached, not with the size of the
+ * graph.
+ *
+ * The graph is read as it is when the traversal advances, so vertices and
+ * edges should not be added or removed while iterating.
+ */
+public class TraversalIterator<T> implements Iterator<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final IndexedAdjacency graph;
+    private final T[] vertices;
+    private final boolean depthFirst;
+    private final IntHashSet visited;
+
+    // BFS: circular queue of discovered vertices not returned yet
+    // DFS: stack of vertices with the slot where each scan resumes
+    private int[] items;
+    private int[] nextSlot;
+    private int head;
+    private int size;
+    private int pending;
+
+    private TraversalIterator(IndexedAdjacency graph, T[] vertices, int startIndex, boolean depthFirst) {
+        this.graph = graph;
+        this.vertices = vertices;
+        this.depthFirst = depthFirst;
+        this.visited = new IntHashSet();
+        this.items = new int[DEFAULT_CAPACITY];
+        this.nextSlot = depthFirst ? new int[DEFAULT_CAPACITY] : null;
+        this.head = 0;
+        this.size = 0;
+        this.pending = -1;
+
+        if (startIndex >= 0 && startIndex < graph.indexBound()) {
+            visited.add(startIndex);
+            if (depthFirst) {
+                push(startIndex);
+                pending = startIndex;
+            } else {
+                enqueue(startIndex);
+            }
+        }
+    }
+
+    /**
+     * @param vertices the vertices array of the graph, indexed like it
+     */
+    public static <T> TraversalIterator<T> breadthFirst(IndexedAdjacency graph, T[] vertices, int startIndex) {
+        return new TraversalIterator<>(graph, vertices, startIndex, false);
+    }
+
+    public static <T> TraversalIterator<T> depthFirst(IndexedAdjacency graph, T[] vertices, int startIndex) {
+        return new TraversalIterator<>(graph, vertices, startIndex, true);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (depthFirst) {
+            if (pending == -1) {
+                advanceDepthFirst();
+            }
+            return pending != -1;
+        }
+        return size > 0;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new IllegalStateException();
+        int index;
+        if (depthFirst) {
+            index = pending;
+            pending = -1;
+        } else {
+            index = dequeue();
+            expand(index);
+        }
+        return vertices[index];
+    }
+
+    /**
+     * Number of vertices reached so far, including the ones discovered but
+     * not returned yet.
+     */
+    public int reachedCount() {
+        return visited.size();
+    }
+
+    private void expand(int index) {
+        for (int k = 0, count = graph.neighborCount(index); k < count; k++) {
+            if (graph.neighborWeight(index, k) < Double.POSITIVE_INFINITY) {
+                int i = graph.neighborAt(index, k);
+                if (visited.add(i)) {
+                    enqueue(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves down from the top of the stack to the next unvisited vertex,
+     * backtracking over vertices with nothing left to visit.
+     */
+    private void advanceDepthFirst() {
+        while (size > 0) {
+            int top = size - 1;
+            int x = items[top];
+            for (int count = graph.neighborCount(x); nextSlot[top] < count; ) {
+                int slot = nextSlot[top]++;
+                if (graph.neighborWeight(x, slot) < Double.POSITIVE_INFINITY) {
+                    int i = graph.neighborAt(x, slot);
+                    if (visited.add(i)) {
+                        push(i);
+                        pending = i;
+                        return;
+                    }
+                }
+            }
+            size--;
+        }
+    }
+
+    private void push(int index) {
+        if (size == items.length) {
+            int[] largerItems = new int[items.length * 2];
+            int[] largerSlots = new int[items.length * 2];
+            System.arraycopy(items, 0, largerItems, 0, size);
+            System.arraycopy(nextSlot, 0, largerSlots, 0, size);
+            items = largerItems;
+            nextSlot = largerSlots;
+        }
+        items[size] = index;
+        nextSlot[size] = 0;
+        size++;
+    }
+
+    private void enqueue(int index) {
+        if (size == items.length) {
+            int[] larger = new int[items.length * 2];
+            for (int i = 0; i < size; i++) {
+                larger[i] = items[(head + i) % items.length];
+            }
+            items = larger;
+            head = 0;
+        }
+        items[(head + size) % items.length] = index;
+        size++;
+    }
+
+    private int dequeue() {
+        int index = items[head];
+        head = (head + 1) % items.length;
+        size--;
+        return index;
+    }
+}
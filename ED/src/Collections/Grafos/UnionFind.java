@@ -0,0 +1,98 @@
+package Collections.Grafos;
+
+/**
+ * Disjoint sets over the ints 0 .. size-1, with union by size and path
+ * halving, so any sequence of operations runs in nearly constant
+ * amortized time per operation.
+ */
+public class UnionFind {
+    protected int[] parent;
+    protected int[] setSize;
+    protected int sets;
+
+    public UnionFind(int size) {
+        this.parent = new int[size];
+        this.setSize = new int[size];
+        this.sets = size;
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            setSize[i] = 1;
+        }
+    }
+
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Adds singleton sets for the ints size() .. newSize-1.
+     */
+    public void grow(int newSize) {
+        int oldSize = parent.length;
+        if (newSize <= oldSize) {
+            return;
+        }
+        int[] largerParent = new int[newSize];
+        int[] largerSetSize = new int[newSize];
+        System.arraycopy(parent, 0, largerParent, 0, oldSize);
+        System.arraycopy(setSize, 0, largerSetSize, 0, oldSize);
+        for (int i = oldSize; i < newSize; i++) {
+            largerParent[i] = i;
+            largerSetSize[i] = 1;
+        }
+        parent = largerParent;
+        setSize = largerSetSize;
+        sets += newSize - oldSize;
+    }
+
+    /**
+     * Number of disjoint sets.
+     */
+    public int setCount() {
+        return sets;
+    }
+
+    /**
+     * Representative of the set containing x.
+     */
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets of x and y.
+     *
+     * @return false if they were already in the same set
+     */
+    public boolean union(int x, int y) {
+        int rootX = find(x);
+        int rootY = find(y);
+        if (rootX == rootY) {
+            return false;
+        }
+        if (setSize[rootX] < setSize[rootY]) {
+            int swap = rootX;
+            rootX = rootY;
+            rootY = swap;
+        }
+        parent[rootY] = rootX;
+        setSize[rootX] += setSize[rootY];
+        sets--;
+        return true;
+    }
+
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    /**
+     * Number of elements in the set containing x.
+     */
+    public int setSize(int x) {
+        return setSize[find(x)];
+    }
+}
@@ -0,0 +1,63 @@
+package Collections.Grafos;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts vertices to bytes and back, for the vertex table of a
+ * NetworkSnapshot.
+ */
+public interface VertexCodec<T> {
+    /**
+     * Bytes of a vertex; the vertex may be null.
+     */
+    byte[] encode(T vertex);
+
+    /**
+     * Vertex stored in the remaining bytes of data, a little-endian view
+     * holding exactly the bytes returned by encode.
+     */
+    T decode(ByteBuffer data);
+
+    VertexCodec<String> STRINGS = new VertexCodec<>() {
+        // A leading byte tells the empty string apart from null
+        @Override
+        public byte[] encode(String vertex) {
+            if (vertex == null) {
+                return new byte[0];
+            }
+            byte[] text = vertex.getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = new byte[text.length + 1];
+            bytes[0] = 1;
+            System.arraycopy(text, 0, bytes, 1, text.length);
+            return bytes;
+        }
+
+        @Override
+        public String decode(ByteBuffer data) {
+            if (data.remaining() == 0) {
+                return null;
+            }
+            data.get();
+            byte[] text = new byte[data.remaining()];
+            data.get(text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+    };
+
+    VertexCodec<Integer> INTEGERS = new VertexCodec<>() {
+        @Override
+        public byte[] encode(Integer vertex) {
+            if (vertex == null) {
+                return new byte[0];
+            }
+            int v = vertex;
+            return new byte[]{(byte) v, (byte) (v >>> 8), (byte) (v >>> 16), (byte) (v >>> 24)};
+        }
+
+        @Override
+        public Integer decode(ByteBuffer data) {
+            return data.remaining() == 0 ? null : data.getInt();
+        }
+    };
+}
@@ -0,0 +1,186 @@
+package Collections.Grafos;
+
+/**
+ * Hash table from vertex to its index in the vertices array of a graph.
+ * Open addressing with linear probing; deletions shift the following
+ * entries back so lookups never need tombstones.
+ */
+public class VertexIndex<T> {
+    protected final int DEFAULT_CAPACITY = 16;
+    protected Object[] keys;
+    protected int[] values;
+    protected int count;
+    protected boolean duplicates;
+
+    public VertexIndex() {
+        this.keys = new Object[DEFAULT_CAPACITY];
+        this.values = new int[DEFAULT_CAPACITY];
+        this.count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Spreads the hash code so that runs of consecutive codes (Integer
+     * vertices, for instance) do not fill one long probe run.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slotOf(Object key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @return the index stored for the vertex, or -1 if it is not indexed
+     */
+    public int get(T vertex) {
+        if (vertex == null) {
+            return -1;
+        }
+        int slot = slotOf(vertex);
+        return keys[slot] == null ? -1 : values[slot];
+    }
+
+    public void put(T vertex, int index) {
+        if (vertex == null) {
+            return;
+        }
+        int slot = slotOf(vertex);
+        if (keys[slot] == null) {
+            keys[slot] = vertex;
+            count++;
+        }
+        values[slot] = index;
+        if (2 * count > keys.length) {
+            expandCapacity();
+        }
+    }
+
+    /**
+     * Stores the index only if the vertex is not indexed yet, so equal
+     * vertices resolve to the first one, like a linear scan would.
+     */
+    public void putIfAbsent(T vertex, int index) {
+        if (get(vertex) == -1) {
+            put(vertex, index);
+        } else {
+            duplicates = true;
+        }
+    }
+
+    public void remove(T vertex) {
+        if (vertex == null) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(vertex);
+        if (keys[slot] == null) {
+            return;
+        }
+        keys[slot] = null;
+        count--;
+
+        // Move back any entry of the same probe run that can now be closer
+        int next = (slot + 1) & mask;
+        while (keys[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                keys[next] = null;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Updates the index after the vertex at removedIndex was deleted and
+     * every following vertex moved down one position.
+     *
+     * @param vertices the vertices array after the shift
+     * @param count    the number of vertices after the removal
+     */
+    public void removeShifted(T removedVertex, int removedIndex, T[] vertices, int count) {
+        remove(removedVertex);
+        for (int i = removedIndex; i < count; i++) {
+            if (vertices[i] != null && get(vertices[i]) == i + 1) {
+                put(vertices[i], i);
+            }
+        }
+        if (removedVertex == null) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (removedVertex.equals(vertices[i])) {
+                put(vertices[i], i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Updates the index after the vertex at removedIndex was deleted and
+     * its slot left empty, with every other vertex kept in place. If an
+     * equal vertex is still in the graph, it becomes the indexed one.
+     *
+     * @param bound one past the highest slot in use
+     */
+    public void removeAt(T removedVertex, int removedIndex, T[] vertices, int bound) {
+        if (removedVertex == null || get(removedVertex) != removedIndex) {
+            return;
+        }
+        remove(removedVertex);
+        if (!duplicates) {
+            return;
+        }
+        for (int i = 0; i < bound; i++) {
+            if (i != removedIndex && removedVertex.equals(vertices[i])) {
+                put(vertices[i], i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indexes the vertices array from scratch, e.g. after it was compacted.
+     */
+    public void rebuild(T[] vertices, int count) {
+        clear();
+        for (int i = 0; i < count; i++) {
+            putIfAbsent(vertices[i], i);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+        }
+        count = 0;
+        duplicates = false;
+    }
+
+    protected void expandCapacity() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package Collections.Heaps;
+
+import Collections.Exceptions.EmptyCollectionException;
+
+/**
+ * Binary min-heap of primitive int ids (0 .. capacity-1) keyed by a double.
+ * Keeps the position of every id so decreaseKey runs in O(log n).
+ * Equal keys are ordered by the smaller id, so removal order is deterministic.
+ */
+public class IndexedMinHeap {
+    protected int[] heap;
+    protected int[] position;
+    protected double[] keys;
+    protected int count;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        for (int i = 0; i < capacity; i++) {
+            position[i] = -1;
+        }
+        this.count = 0;
+    }
+
+    public int capacity() {
+        return position.length;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean contains(int id) {
+        return position[id] != -1;
+    }
+
+    public double keyOf(int id) {
+        return keys[id];
+    }
+
+    public void insert(int id, double key) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("Id already in heap: " + id);
+        }
+        keys[id] = key;
+        heap[count] = id;
+        position[id] = count;
+        count++;
+        siftUp(count - 1);
+    }
+
+    public void decreaseKey(int id, double key) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Id not in heap: " + id);
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Inserts the id or lowers its key if already present.
+     */
+    public void insertOrDecrease(int id, double key) {
+        if (contains(id)) {
+            decreaseKey(id, key);
+        } else {
+            insert(id, key);
+        }
+    }
+
+    public int findMin() throws EmptyCollectionException {
+        if (isEmpty()) {
+            throw new EmptyCollectionException("Empty Heap");
+        }
+        return heap[0];
+    }
+
+    public double minKey() throws EmptyCollectionException {
+        return keys[findMin()];
+    }
+
+    public int removeMin() throws EmptyCollectionException {
+        if (isEmpty()) {
+            throw new EmptyCollectionException("Empty Heap");
+        }
+        int min = heap[0];
+        count--;
+        position[min] = -1;
+        if (count > 0) {
+            heap[0] = heap[count];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Empties the heap in O(size), so it can be reused between searches.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            position[heap[i]] = -1;
+        }
+        count = 0;
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int node) {
+        int id = heap[node];
+        while (node > 0) {
+            int parent = (node - 1) / 2;
+            if (!less(id, heap[parent])) {
+                break;
+            }
+            heap[node] = heap[parent];
+            position[heap[node]] = node;
+            node = parent;
+        }
+        heap[node] = id;
+        position[id] = node;
+    }
+
+    private void siftDown(int node) {
+        int id = heap[node];
+        while (2 * node + 1 < count) {
+            int next = 2 * node + 1;
+            if (next + 1 < count && less(heap[next + 1], heap[next])) {
+                next++;
+            }
+            if (!less(heap[next], id)) {
+                break;
+            }
+            heap[node] = heap[next];
+            position[heap[node]] = node;
+            node = next;
+        }
+        heap[node] = id;
+        position[id] = node;
+    }
+}
@@ -0,0 +1,53 @@
+package Game;
+
+import Collections.Grafos.Heuristic;
+
+/**
+ * Heurística do A* baseada na distância euclidiana entre as coordenadas
+ * das salas. A distância é multiplicada pelo menor custo por unidade de
+ * distância de todos os corredores do mapa, para nunca sobrestimar o custo
+ * real do caminho.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class EuclideanHeuristic implements Heuristic<Room> {
+    private double scale;
+
+    /**
+     * Construtor da heurística sem corredores conhecidos.
+     */
+    public EuclideanHeuristic() {
+        this.scale = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Regista um corredor, baixando a escala se o seu custo por unidade
+     * de distância for menor que o atual.
+     *
+     * @param from   Sala de origem
+     * @param to     Sala de destino
+     * @param weight Custo do corredor
+     */
+    public void addCorridor(Room from, Room to, double weight) {
+        double dist = distance(from, to);
+        if (dist > 0 && weight / dist < scale) {
+            scale = weight / dist;
+        }
+    }
+
+    public double getScale() {
+        return scale == Double.POSITIVE_INFINITY ? 0 : scale;
+    }
+
+    @Override
+    public double estimate(Room vertex, Room target) {
+        return getScale() * distance(vertex, target);
+    }
+
+    private static double distance(Room a, Room b) {
+        double dx = a.getX() - b.getX();
+        double dy = a.getY() - b.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -1,10 +1,12 @@
 package Game;
 
+import Collections.Grafos.Neighbor;
 import Collections.Queue.LinkedQueue;
 import Collections.ListasIterador.Classes.LinkedUnorderedList;
 import Collections.ListasIterador.Classes.ArrayUnorderedList;
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.Scanner;
 
@@ -27,6 +29,39 @@ public class GameEngine {
     private AchievementTracker achievementTracker;
     private Scanner consoleScanner;
 
+    /**
+     * Modo headless: sem pausas, sem leitura nem escrita na consola e sem
+     * relatório em ficheiro. Os jogadores humanos jogam como bots e o
+     * jogo só pode ser observado pelo GameEventSink.
+     */
+    private boolean headless;
+    private GameEventSink eventSink;
+    private int maxTurns;
+    private int turnCount;
+    private Player winner;
+
+    /**
+     * Enigmas partilhados de onde a lista do jogo é reposta quando se
+     * esgota, em vez de voltar a ler o ficheiro; null no jogo normal.
+     */
+    private ArrayUnorderedList<Enigma> enigmaSource;
+    private GameRandom random;
+
+    /**
+     * Relatório NDJSON escrito turno a turno durante o jogo normal, para
+     * que um jogo interrompido deixe um relatório válido; null em modo
+     * headless.
+     */
+    private GameReport liveReport;
+
+    /**
+     * Diário binário onde cada acontecimento é acrescentado durante o
+     * jogo. No jogo normal, se nenhum for indicado, o motor cria o seu em
+     * game.gjnl e fecha-o no fim.
+     */
+    private GameJournal journal;
+    private boolean ownsJournal;
+
     /**
      * Construtor do motor do jogo.
      * Inicializa todas as estruturas de dados necessárias.
@@ -37,40 +72,247 @@ public class GameEngine {
         this.allPlayers = new LinkedUnorderedList<>();
         this.gameRunning = true;
         this.consoleScanner = new Scanner(System.in);
+        this.random = new GameRandom();
+    }
+
+    /**
+     * Construtor do motor em modo headless, para simular jogos tão
+     * depressa quanto possível (testes e equilíbrio do jogo).
+     *
+     * @param eventSink Destino dos acontecimentos do jogo, ou null
+     */
+    public GameEngine(GameEventSink eventSink) {
+        this.map = new MazeMap();
+        this.turnQueue = new LinkedQueue<>();
+        this.allPlayers = new LinkedUnorderedList<>();
+        this.gameRunning = true;
+        this.headless = true;
+        this.eventSink = eventSink;
+        this.random = new GameRandom();
+    }
+
+    /**
+     * Construtor do motor em modo headless sobre um mapa já carregado,
+     * sem ler ficheiros. O mapa passa a ser deste jogo, que o altera ao
+     * abrir portas; para vários jogos sobre o mesmo mapa, cada um deve
+     * receber uma cópia (MazeMap.copy). A lista de enigmas só é lida.
+     *
+     * @param map       Mapa do jogo
+     * @param enigmas   Enigmas disponíveis
+     * @param eventSink Destino dos acontecimentos do jogo, ou null
+     */
+    public GameEngine(MazeMap map, ArrayUnorderedList<Enigma> enigmas, GameEventSink eventSink) {
+        this(eventSink);
+        this.map = map;
+        this.enigmaSource = enigmas;
+        this.availableEnigmas = copyEnigmas(enigmas);
+        findTreasureRoom();
+    }
+
+    /**
+     * Define a fonte de números aleatórios do jogo, para que jogos com a
+     * mesma semente se repitam e jogos em paralelo não partilhem estado.
+     *
+     * @param random Fonte de números aleatórios
+     */
+    public void setRandom(GameRandom random) {
+        this.random = random;
+    }
+
+    public GameRandom getRandom() {
+        return random;
     }
 
     public MazeMap getMap() {
         return map;
     }
 
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Todos os jogadores, pela ordem em que foram adicionados.
+     *
+     * @return Iterador dos jogadores
+     */
+    public Iterator<Player> getPlayers() {
+        return allPlayers.iterator();
+    }
+
+    /**
+     * Acrescenta os acontecimentos do jogo a um diário, que não é fechado
+     * pelo motor.
+     *
+     * @param journal Diário de destino, ou null para não escrever diário
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+        this.ownsJournal = false;
+    }
+
+    public void setEventSink(GameEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Limita a duração do jogo. Ao fim desse número de turnos o jogo
+     * termina sem vencedor.
+     *
+     * @param maxTurns Número máximo de turnos, ou 0 para não haver limite
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Número de turnos jogados, incluindo os saltados por atordoamento.
+     *
+     * @return Turnos jogados
+     */
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Jogador que encontrou o tesouro.
+     *
+     * @return Vencedor, ou null se o jogo terminou sem vencedor
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
     public void stopGame() {
         this.gameRunning = false;
-        System.out.println("Jogo parado. A gerar relatório...");
+        say("Jogo parado. A gerar relatório...");
     }
 
-    private void movePlayerWithAnimation(Player p, Room target) {
-        p.setCurrentRoom(target);
+    /**
+     * Escreve uma mensagem na consola, exceto em modo headless.
+     */
+    private void say(String message) {
+        if (!headless) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Pausa para o jogo ser acompanhado na consola; não pausa em modo
+     * headless.
+     */
+    private void pause(long millis) {
+        if (headless) {
+            return;
+        }
         try {
-            Thread.sleep(500);
+            Thread.sleep(millis);
         } catch (InterruptedException e) {
-            e.printStackTrace();
         }
     }
 
-    public void loadMapData(String mapFile) {
-        DataLoader.loadMap(mapFile, map);
-        this.treasureRoom = map.getRoom("Tesouro");
+    private void emit(GameEventType type, Player player) {
+        emit(type, player, player.getCurrentRoom());
+    }
 
-        if (this.treasureRoom == null) {
-            Iterator<Room> it = map.getRooms();
-            while (it.hasNext()) {
-                Room r = it.next();
-                if (r.getType().equals("TREASURE")) {
-                    this.treasureRoom = r;
-                    break;
+    private void emit(GameEventType type, Player player, Room room) {
+        if (eventSink != null) {
+            eventSink.onEvent(turnCount, type, player, room);
+        }
+        if (journal != null) {
+            try {
+                journal.onEvent(turnCount, type, player, room);
+            } catch (UncheckedIOException e) {
+                if (headless) {
+                    throw e;
                 }
+                say("Erro ao escrever o diário do jogo: " + e.getCause().getMessage());
+                closeJournal();
             }
         }
+        if (liveReport != null) {
+            try {
+                liveReport.onEvent(turnCount, type, player, room);
+            } catch (UncheckedIOException e) {
+                say("Erro ao escrever report.ndjson: " + e.getCause().getMessage());
+                closeLiveReport();
+            }
+        }
+    }
+
+    private void closeLiveReport() {
+        try {
+            liveReport.close();
+        } catch (UncheckedIOException e) {
+            say("Erro ao fechar report.ndjson, o relatório pode estar incompleto: "
+                    + e.getCause().getMessage());
+        }
+        liveReport = null;
+    }
+
+    /**
+     * Fecha o diário se foi criado pelo motor; um diário indicado com
+     * setJournal é só largado.
+     */
+    private void closeJournal() {
+        if (ownsJournal) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                say("Erro ao fechar o diário do jogo, pode estar incompleto: " + e.getMessage());
+            }
+        }
+        journal = null;
+        ownsJournal = false;
+    }
+
+    /**
+     * Carrega as salas e corredores do mapa. Se existir uma cópia binária
+     * mais recente que o ficheiro JSON, é lida essa; caso contrário é lido
+     * o JSON e a cópia binária é guardada para os próximos carregamentos.
+     * Sem o ficheiro JSON a cópia binária não é usada, por poder ser de um
+     * mapa que já não existe.
+     *
+     * @param mapFile      Ficheiro JSON do mapa
+     * @param snapshotFile Ficheiro da cópia binária
+     */
+    private void loadRooms(String mapFile, String snapshotFile) {
+        File source = new File(mapFile);
+        File snapshot = new File(snapshotFile);
+        if (source.isFile() && snapshot.isFile() && snapshot.lastModified() >= source.lastModified()) {
+            try {
+                map.loadSnapshot(snapshotFile);
+                return;
+            } catch (IOException e) {
+                say("Aviso: cópia binária do mapa inválida, a ler " + mapFile);
+            }
+        }
+
+        DataLoader.loadMap(mapFile, map);
+        if (map.getRooms().hasNext()) {
+            try {
+                map.saveSnapshot(snapshotFile);
+            } catch (IOException e) {
+                say("Aviso: não foi possível guardar a cópia binária do mapa em " + snapshotFile);
+            }
+        }
+    }
+
+    private void movePlayerWithAnimation(Player p, Room target) {
+        p.setCurrentRoom(target);
+        pause(500);
+    }
+
+    public void loadMapData(String mapFile) {
+        loadRooms(mapFile, mapFile + ".snap");
+        if (!map.precomputePaths(MazeMap.DEFAULT_PRECOMPUTE_LIMIT)) {
+            try {
+                map.prepareLandmarks(MazeMap.DEFAULT_LANDMARKS, mapFile + ".alt");
+            } catch (IOException e) {
+                say("Aviso: não foi possível guardar os landmarks em " + mapFile + ".alt");
+            }
+        }
+        findTreasureRoom();
 
         String[] possiblePaths = {
                 "src/Map/enigmas.json",
@@ -82,7 +324,7 @@ public class GameEngine {
         String enigmaPath = null;
 
         for (String path : possiblePaths) {
-            if (new java.io.File(path).exists()) {
+            if (new File(path).exists()) {
                 enigmaPath = path;
                 break;
             }
@@ -91,25 +333,81 @@ public class GameEngine {
         if (enigmaPath != null) {
             this.availableEnigmas = DataLoader.loadEnigmas(enigmaPath);
         } else {
-            System.out.println("Warning: enigmas.json not found. Enigmas will be disabled.");
+            say("Warning: enigmas.json not found. Enigmas will be disabled.");
             this.availableEnigmas = new ArrayUnorderedList<>();
         }
     }
 
-    public void addPlayer(String name, boolean isBot, Room startRoom) {
+    /**
+     * Procura a sala do tesouro, pelo nome "Tesouro" ou pelo tipo
+     * TREASURE, e indica-a ao mapa.
+     */
+    private void findTreasureRoom() {
+        this.treasureRoom = map.getRoom("Tesouro");
+
+        if (this.treasureRoom == null) {
+            Iterator<Room> it = map.getRooms();
+            while (it.hasNext()) {
+                Room r = it.next();
+                if (r.getType().equals("TREASURE")) {
+                    this.treasureRoom = r;
+                    break;
+                }
+            }
+        }
+        map.setTreasureRoom(treasureRoom);
+    }
+
+    private static ArrayUnorderedList<Enigma> copyEnigmas(ArrayUnorderedList<Enigma> enigmas) {
+        ArrayUnorderedList<Enigma> copy = new ArrayUnorderedList<>();
+        if (enigmas != null) {
+            Iterator<Enigma> it = enigmas.iterator();
+            while (it.hasNext()) {
+                copy.addToRear(it.next());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Acrescenta um jogador ao jogo.
+     *
+     * @param name      Nome do jogador
+     * @param isBot     Verdadeiro se for bot
+     * @param startRoom Sala inicial
+     * @return O jogador criado
+     */
+    public Player addPlayer(String name, boolean isBot, Room startRoom) {
         Room realRoom = map.getRoom(startRoom.getId());
         if (realRoom != null) {
             startRoom = realRoom;
         } else {
-            System.out.println("Warning: Start room '" + startRoom.getId() + "' not found in map!");
+            say("Warning: Start room '" + startRoom.getId() + "' not found in map!");
         }
         Player p = new Player(name, isBot, startRoom);
         allPlayers.addToRear(p);
         turnQueue.enqueue(p);
+        return p;
     }
 
     public void start() {
-        System.out.println("--- A Iniciar O Labirinto da Glória ---");
+        say("--- A Iniciar O Labirinto da Glória ---");
+        say("Semente: " + random.getSeed());
+        if (!headless) {
+            try {
+                liveReport = new GameReport("report.ndjson", true);
+            } catch (IOException e) {
+                say("Erro ao criar report.ndjson: " + e.getMessage());
+            }
+            if (journal == null) {
+                try {
+                    journal = new GameJournal("game.gjnl", random.getSeed());
+                    ownsJournal = true;
+                } catch (IOException e) {
+                    say("Erro ao criar o diário do jogo: " + e.getMessage());
+                }
+            }
+        }
 
         Player trackedPlayer = null;
         Iterator<Player> it = allPlayers.iterator();
@@ -122,43 +420,73 @@ public class GameEngine {
         }
 
         while (gameRunning && !turnQueue.isEmpty()) {
+            if (maxTurns > 0 && turnCount >= maxTurns) {
+                say("Limite de " + maxTurns + " turnos atingido. O jogo termina sem vencedor.");
+                Player next = turnQueue.first();
+                next.addToLog("Game ended at the turn limit.");
+                emit(GameEventType.TURN_LIMIT, next);
+                gameRunning = false;
+                break;
+            }
+
             Player current = turnQueue.dequeue();
+            turnCount++;
 
             if (current.getSkipTurns() > 0) {
-                System.out.println("\n>> Turno: " + current.getName() + " está atordoado! (Salta turno)");
+                say("\n>> Turno: " + current.getName() + " está atordoado! (Salta turno)");
                 current.addToLog("Skipped turn due to stun.");
+                emit(GameEventType.STUNNED, current);
                 current.setSkipTurns(current.getSkipTurns() - 1);
                 turnQueue.enqueue(current);
-                try {
-                    Thread.sleep(1500);
-                } catch (InterruptedException e) {
-                }
+                pause(1500);
                 continue;
             }
 
             if (!gameRunning)
                 break;
 
-            System.out.println("\n>> Turno: " + current.getName() + " (" + (current.isBot() ? "Bot" : "Humano") + ")");
-            System.out.println("Localização atual: " + current.getCurrentRoom());
+            say("\n>> Turno: " + current.getName() + " (" + (current.isBot() ? "Bot" : "Humano") + ")");
+            say("Localização atual: " + current.getCurrentRoom());
+            emit(GameEventType.TURN_START, current);
 
-            if (current.isBot()) {
+            if (current.isBot() || headless) {
                 playBotTurn(current);
             } else {
                 playHumanTurn(current);
             }
 
             if (current.getCurrentRoom() != null && current.getCurrentRoom().getType().equals("TREASURE")) {
-                System.out.println("!!! VENCEDOR: " + current.getName() + " !!!");
+                say("!!! VENCEDOR: " + current.getName() + " !!!");
                 current.addToLog("Found the treasure and won!");
+                winner = current;
+                emit(GameEventType.WINNER, current);
                 gameRunning = false;
             } else {
                 turnQueue.enqueue(current);
             }
         }
 
+        if (journal != null && ownsJournal) {
+            closeJournal();
+        }
+
+        if (headless) {
+            if (achievementTracker != null) {
+                achievementTracker.checkAndUnlockAchievements();
+            }
+            return;
+        }
+
+        if (liveReport != null) {
+            try {
+                liveReport.writeGame(0, this);
+            } catch (UncheckedIOException e) {
+                say("Erro ao escrever report.ndjson: " + e.getCause().getMessage());
+            }
+            closeLiveReport();
+        }
         exportReport();
-        System.out.println("Relatório gerado: report.json");
+        say("Relatório gerado: report.json");
 
         if (achievementTracker != null) {
             achievementTracker.checkAndUnlockAchievements();
@@ -172,36 +500,32 @@ public class GameEngine {
             bot.setHasInteracted(true);
         }
 
-        Iterator<Room> path = map.getShortestPath(bot.getCurrentRoom(), treasureRoom);
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-        }
-
-        if (path.hasNext()) {
-            path.next();
-            if (path.hasNext()) {
-                Room nextMove = path.next();
-                double weight = map.getWeight(bot.getCurrentRoom(), nextMove);
+        Room nextMove = map.getNextStepToTreasure(bot.getCurrentRoom());
+        pause(1000);
 
-                if (weight > 100) {
-                    System.out.println("O Bot está bloqueado por uma porta trancada em " + nextMove.getId());
-                    if (bot.getCurrentRoom().getInteraction().equals("lever")) {
-                        pullLever(bot);
-                    } else {
-                        System.out.println("O Bot espera.");
-                    }
-                } else {
-                    System.out.println("O Bot move-se para: " + nextMove.getId());
-                    movePlayerWithAnimation(bot, nextMove);
-                    bot.setHasInteracted(false);
+        if (nextMove == null) {
+            say("O Bot está confuso.");
+            emit(GameEventType.CONFUSED, bot);
+            return;
+        }
+        double weight = map.getCorridorWeight(bot.getCurrentRoom(), nextMove);
 
-                    if (!nextMove.getType().equals("TREASURE")) {
-                        triggerRandomEvent(bot);
-                    }
-                }
+        if (weight > 100) {
+            say("O Bot está bloqueado por uma porta trancada em " + nextMove.getId());
+            emit(GameEventType.BLOCKED, bot);
+            if (bot.getCurrentRoom().getInteraction().equals("lever")) {
+                pullLever(bot);
             } else {
-                System.out.println("O Bot está confuso.");
+                say("O Bot espera.");
+            }
+        } else {
+            say("O Bot move-se para: " + nextMove.getId());
+            movePlayerWithAnimation(bot, nextMove);
+            emit(GameEventType.MOVE, bot);
+            bot.setHasInteracted(false);
+
+            if (!nextMove.getType().equals("TREASURE")) {
+                triggerRandomEvent(bot);
             }
         }
     }
@@ -218,18 +542,18 @@ public class GameEngine {
             player.setHasInteracted(true);
         }
 
-        System.out.println("Vizinhos:");
-        Iterator<Room> rooms = map.getRooms();
-        while (rooms.hasNext()) {
-            Room r = rooms.next();
-            if (map.isNeighbor(current, r)) {
-                double weight = map.getWeight(current, r);
-                String status = (weight > 100) ? "[TRANCADA]" : "[ABERTA]";
-                System.out.println(" - " + r.getId() + " " + status);
+        say("Vizinhos:");
+        Iterator<Neighbor<Room>> corridors = map.getCorridors(current);
+        while (corridors.hasNext()) {
+            Neighbor<Room> corridor = corridors.next();
+            Room r = corridor.getVertex();
+            if (!r.equals(current)) {
+                String status = (corridor.getWeight() > 100) ? "[TRANCADA]" : "[ABERTA]";
+                say(" - " + r.getId() + " " + status);
             }
         }
 
-        System.out.println("Digita o nome da sala para ires:");
+        say("Digita o nome da sala para ires:");
         String targetName = consoleScanner.hasNextLine() ? consoleScanner.nextLine() : null;
 
         if (targetName == null || targetName.trim().isEmpty())
@@ -238,36 +562,39 @@ public class GameEngine {
         Room target = map.getRoom(targetName);
 
         if (target == null) {
-            System.out.println("Sala não encontrada!");
+            say("Sala não encontrada!");
             return;
         }
 
         if (!map.isNeighbor(current, target)) {
-            System.out.println("Não podes mover-te diretamente para lá!");
+            say("Não podes mover-te diretamente para lá!");
             return;
         }
 
-        double weight = map.getWeight(current, target);
+        double weight = map.getCorridorWeight(current, target);
         if (weight < 100) {
             movePlayerWithAnimation(player, target);
+            emit(GameEventType.MOVE, player);
             player.setHasInteracted(false);
 
             if (!target.getType().equals("TREASURE")) {
                 triggerRandomEvent(player);
             }
         } else {
-            System.out.println("Caminho bloqueado! Encontra uma alavanca.");
+            say("Caminho bloqueado! Encontra uma alavanca.");
+            emit(GameEventType.BLOCKED, player);
         }
     }
 
     private Enigma getRandomEnigma() {
         if (availableEnigmas == null || availableEnigmas.isEmpty()) {
-            this.availableEnigmas = DataLoader.loadEnigmas("src/Map/enigmas.json");
+            this.availableEnigmas = enigmaSource != null ? copyEnigmas(enigmaSource)
+                    : DataLoader.loadEnigmas("src/Map/enigmas.json");
         }
         if (availableEnigmas.isEmpty())
             return null;
 
-        int randomIndex = (int) (Math.random() * availableEnigmas.size());
+        int randomIndex = random.enigmas().nextInt(availableEnigmas.size());
         Iterator<Enigma> it = availableEnigmas.iterator();
         Enigma e = null;
         for (int i = 0; i <= randomIndex; i++) {
@@ -282,21 +609,23 @@ public class GameEngine {
         if (e == null)
             return;
 
-        System.out.println("Enigma: " + e.getQuestion());
+        say("Enigma: " + e.getQuestion());
         System.out.print("Resposta: ");
 
         String input = consoleScanner.hasNext() ? consoleScanner.next() : "";
         consoleScanner.nextLine();
 
         if (e.checkAnswer(input)) {
-            System.out.println("Correto!");
+            say("Correto!");
             p.addToLog("Solved enigma: " + e.getQuestion());
+            emit(GameEventType.ENIGMA_SOLVED, p);
             if (achievementTracker != null && p.equals(achievementTracker.getTrackedPlayer())) {
                 achievementTracker.recordEnigmaSolved();
             }
         } else {
-            System.out.println("Errado!");
+            say("Errado!");
             p.addToLog("Failed enigma.");
+            emit(GameEventType.ENIGMA_FAILED, p);
             if (achievementTracker != null && p.equals(achievementTracker.getTrackedPlayer())) {
                 achievementTracker.recordEnigmaFailed();
             }
@@ -308,74 +637,85 @@ public class GameEngine {
         if (e == null)
             return;
 
-        System.out.println("Bot encontrou um enigma: " + e.getQuestion());
+        say("Bot encontrou um enigma: " + e.getQuestion());
 
-        if (Math.random() < 0.33) {
-            System.out.println("Bot resolveu o enigma corretamente!");
+        if (random.enigmas().nextDouble() < 0.33) {
+            say("Bot resolveu o enigma corretamente!");
             bot.addToLog("Solved enigma: " + e.getQuestion());
+            emit(GameEventType.ENIGMA_SOLVED, bot);
         } else {
-            System.out.println("Bot falhou o enigma.");
+            say("Bot falhou o enigma.");
             bot.addToLog("Failed enigma.");
+            emit(GameEventType.ENIGMA_FAILED, bot);
         }
     }
 
     private void pullLever(Player p) {
-        System.out.println("Encontraste uma alavanca! A tentar ativá-la...");
+        say("Encontraste uma alavanca! A tentar ativá-la...");
         p.addToLog("Tried to pull lever.");
 
-        boolean success = Math.random() < 0.5;
+        boolean success = random.levers().nextDouble() < 0.5;
 
         if (success) {
-            System.out.println("*CLICK* Conseguiste! A alavanca funcionou e as portas próximas destrancaram!");
+            say("*CLICK* Conseguiste! A alavanca funcionou e as portas próximas destrancaram!");
             p.addToLog("Lever worked - doors unlocked.");
+            emit(GameEventType.LEVER_PULLED, p);
 
             Iterator<Room> neighbors = map.getNeighbors(p.getCurrentRoom());
             boolean unlockedAny = false;
             while (neighbors.hasNext()) {
                 Room r = neighbors.next();
-                if (map.getWeight(p.getCurrentRoom(), r) > 100) {
+                if (map.getCorridorWeight(p.getCurrentRoom(), r) > 100) {
                     map.openPassage(p.getCurrentRoom(), r);
+                    emit(GameEventType.DOOR_OPENED, p, r);
                     unlockedAny = true;
                 }
             }
 
             Room treasure = map.getRoom("Tesouro");
             if (treasure != null && map.isNeighbor(p.getCurrentRoom(), treasure)) {
+                boolean locked = map.getCorridorWeight(p.getCurrentRoom(), treasure) != 1.0;
                 map.openPassage(p.getCurrentRoom(), treasure);
+                if (locked) {
+                    emit(GameEventType.DOOR_OPENED, p, treasure);
+                }
             }
 
             if (!unlockedAny && treasure == null) {
-                System.out.println("(Mas não havia portas trancadas por perto)");
+                say("(Mas não havia portas trancadas por perto)");
             }
         } else {
-            System.out.println("*CLUNK* A alavanca ficou presa! Não funcionou...");
-            System.out.println("Terás de tentar novamente numa próxima jogada.");
+            say("*CLUNK* A alavanca ficou presa! Não funcionou...");
+            say("Terás de tentar novamente numa próxima jogada.");
             p.addToLog("Lever failed.");
+            emit(GameEventType.LEVER_FAILED, p);
             p.setHasInteracted(false);
         }
     }
 
     private void triggerRandomEvent(Player p) {
-        int chance = (int) (Math.random() * 100);
+        int chance = random.events().nextInt(100);
 
         if (chance < 10) {
-            System.out.println("!!! EVENTO: Uma rajada de vento empurra-te para trás! !!!");
+            say("!!! EVENTO: Uma rajada de vento empurra-te para trás! !!!");
             p.addToLog("Event: Pushed back.");
             if (p.getPreviousRoom() != null) {
                 movePlayerWithAnimation(p, p.getPreviousRoom());
-                System.out.println("Foste movido de volta para " + p.getPreviousRoom().getId());
+                say("Foste movido de volta para " + p.getPreviousRoom().getId());
             }
+            emit(GameEventType.PUSHED_BACK, p);
         } else if (chance < 20) {
-            System.out.println("!!! EVENTO: Caíste numa armadilha! Estás stun durante 1 turno. !!!");
+            say("!!! EVENTO: Caíste numa armadilha! Estás stun durante 1 turno. !!!");
             p.addToLog("Event: Stunned by trap.");
             p.setSkipTurns(1);
+            emit(GameEventType.TRAPPED, p);
 
             if (achievementTracker != null && p.equals(achievementTracker.getTrackedPlayer())) {
                 achievementTracker.recordTrap();
             }
         } else if (chance < 30) {
             if (allPlayers.size() > 1) {
-                System.out.println(
+                say(
                         "!!! EVENTO: PODER DO TELEPORT! Escolhe um jogador para trocar posições... !!!");
                 p.addToLog("Event: Swapped positions.");
 
@@ -391,16 +731,16 @@ public class GameEngine {
                 Player target = null;
 
                 if (otherPlayers.isEmpty()) {
-                    System.out.println("Sem outros jogadores para trocar!");
-                } else if (p.isBot()) {
+                    say("Sem outros jogadores para trocar!");
+                } else if (p.isBot() || headless) {
                     target = otherPlayers.first();
                 } else {
-                    System.out.println("Seleciona um jogador para trocar:");
+                    say("Seleciona um jogador para trocar:");
                     Object[] playerArray = new Object[otherPlayers.size()];
                     int idx = 0;
                     for (Player other : otherPlayers) {
                         playerArray[idx] = other;
-                        System.out.println((idx + 1) + ". " + other.getName() + " [em " +
+                        say((idx + 1) + ". " + other.getName() + " [em " +
                                 other.getCurrentRoom().getId() + "]");
                         idx++;
                     }
@@ -413,7 +753,7 @@ public class GameEngine {
                                 choice = Integer.parseInt(consoleScanner.nextLine().trim());
                             }
                         } catch (NumberFormatException e) {
-                            System.out.println("Entrada inválida!");
+                            say("Entrada inválida!");
                         }
                     }
                     target = (Player) playerArray[choice - 1];
@@ -424,12 +764,14 @@ public class GameEngine {
                     Room targetRoom = target.getCurrentRoom();
                     p.setCurrentRoomAfterSwap(targetRoom);
                     target.setCurrentRoomAfterSwap(myRoom);
-                    System.out.println("Posições trocadas com " + target.getName());
+                    say("Posições trocadas com " + target.getName());
+                    emit(GameEventType.SWAPPED, p);
+                    emit(GameEventType.RELOCATED, target);
                 }
             }
         } else if (chance < 35) {
             if (allPlayers.size() > 2) {
-                System.out.println("!!! EVENTO: CAOS TOTAL! Todos os jogadores trocam de posição! !!!");
+                say("!!! EVENTO: CAOS TOTAL! Todos os jogadores trocam de posição! !!!");
                 p.addToLog("Event: All players shuffled.");
 
                 ArrayUnorderedList<Room> currentPositions = new ArrayUnorderedList<>();
@@ -440,7 +782,7 @@ public class GameEngine {
 
                 ArrayUnorderedList<Room> shuffledPositions = new ArrayUnorderedList<>();
                 while (!currentPositions.isEmpty()) {
-                    int randomIndex = (int) (Math.random() * currentPositions.size());
+                    int randomIndex = random.events().nextInt(currentPositions.size());
                     Iterator<Room> roomIt = currentPositions.iterator();
                     Room selectedRoom = null;
                     for (int i = 0; i <= randomIndex; i++) {
@@ -456,45 +798,41 @@ public class GameEngine {
                     Player player = playerIt.next();
                     Room newRoom = roomIt.next();
                     player.setCurrentRoomAfterSwap(newRoom);
-                    System.out.println(player.getName() + " foi movido para " + newRoom.getId());
+                    say(player.getName() + " foi movido para " + newRoom.getId());
+                }
+                emit(GameEventType.SHUFFLED, p);
+                for (Player player : allPlayers) {
+                    if (player != p) {
+                        emit(GameEventType.RELOCATED, player);
+                    }
                 }
             } else {
-                System.out.println("!!! EVENTO: CAOS TOTAL! (Mas são poucos jogadores para trocar) !!!");
+                say("!!! EVENTO: CAOS TOTAL! (Mas são poucos jogadores para trocar) !!!");
             }
         } else if (chance < 45) {
-            System.out.println("!!! EVENTO: Adrenalina! Tens um turno extra! !!!");
+            say("!!! EVENTO: Adrenalina! Tens um turno extra! !!!");
             p.addToLog("Event: Gained extra turn.");
-            if (p.isBot())
+            emit(GameEventType.EXTRA_TURN, p);
+            if (p.isBot() || headless)
                 playBotTurn(p);
             else
                 playHumanTurn(p);
         }
     }
 
+    /**
+     * Escreve o relatório final em report.json: um array com cada jogador
+     * e o seu histórico.
+     */
     public void exportReport() {
-        try (FileWriter file = new FileWriter("report.json")) {
-            file.write("[\n");
-            boolean firstPlayer = true;
+        try (JsonWriter out = JsonWriter.open("report.json", false, "  ")) {
+            out.beginArray();
             for (Player p : allPlayers) {
-                if (!firstPlayer)
-                    file.write(",\n");
-                file.write("  {\n");
-                file.write("    \"name\": \"" + p.getName() + "\",\n");
-                file.write("    \"log\": [\n");
-                Iterator<String> logs = p.getHistoryLog().iterator();
-                while (logs.hasNext()) {
-                    file.write("      \"" + logs.next() + "\"");
-                    if (logs.hasNext())
-                        file.write(",");
-                    file.write("\n");
-                }
-                file.write("    ]\n");
-                file.write("  }");
-                firstPlayer = false;
+                GameReport.writePlayer(out, p);
             }
-            file.write("\n]");
+            out.endArray();
         } catch (IOException e) {
-            System.out.println("Error saving report: " + e.getMessage());
+            say("Error saving report: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
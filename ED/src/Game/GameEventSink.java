@@ -0,0 +1,23 @@
+package Game;
+
+/**
+ * Recebe os acontecimentos de um jogo à medida que o motor os produz,
+ * por exemplo para os contar, guardar ou mostrar. Num jogo sem consola
+ * (modo headless) é a única forma de observar o que acontece.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public interface GameEventSink {
+
+    /**
+     * Chamado para cada acontecimento do jogo.
+     *
+     * @param turn   Número do turno em que aconteceu, a começar em 1
+     * @param type   Tipo de acontecimento
+     * @param player Jogador envolvido
+     * @param room   Sala onde o jogador ficou, ou null se não se aplicar;
+     *               em DOOR_OPENED, a outra ponta do corredor aberto
+     */
+    void onEvent(int turn, GameEventType type, Player player, Room room);
+}
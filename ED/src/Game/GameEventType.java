@@ -0,0 +1,50 @@
+package Game;
+
+/**
+ * Tipos de acontecimentos de um jogo, enviados pelo motor ao
+ * GameEventSink.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public enum GameEventType {
+    /** Início do turno de um jogador. */
+    TURN_START,
+    /** O jogador está atordoado e salta o turno. */
+    STUNNED,
+    /** O jogador moveu-se para uma sala vizinha. */
+    MOVE,
+    /** O caminho do jogador está bloqueado por uma porta trancada. */
+    BLOCKED,
+    /** O bot não tem caminho até ao tesouro. */
+    CONFUSED,
+    /** O jogador resolveu um enigma. */
+    ENIGMA_SOLVED,
+    /** O jogador falhou um enigma. */
+    ENIGMA_FAILED,
+    /** A alavanca funcionou e destrancou as portas vizinhas. */
+    LEVER_PULLED,
+    /** A alavanca ficou presa. */
+    LEVER_FAILED,
+    /** Evento: o jogador foi empurrado para a sala anterior. */
+    PUSHED_BACK,
+    /** Evento: o jogador caiu numa armadilha. */
+    TRAPPED,
+    /** Evento: o jogador trocou de posição com outro. */
+    SWAPPED,
+    /** Evento: todos os jogadores trocaram de posição. */
+    SHUFFLED,
+    /** Evento: o jogador ganhou um turno extra. */
+    EXTRA_TURN,
+    /** O jogador encontrou o tesouro e ganhou. */
+    WINNER,
+    /** O jogo terminou por ter atingido o número máximo de turnos. */
+    TURN_LIMIT,
+    /** O jogador mudou de sala por um acontecimento de outro jogador. */
+    RELOCATED,
+    /**
+     * Uma alavanca abriu o corredor entre a sala do jogador e a sala do
+     * acontecimento, que neste caso não é a sala onde o jogador está.
+     */
+    DOOR_OPENED
+}
@@ -0,0 +1,158 @@
+package Game;
+
+import Collections.Grafos.VertexIndex;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diário binário de um jogo: cada acontecimento enviado pelo motor é
+ * acrescentado ao ficheiro como um registo compacto, à medida que o jogo
+ * decorre. O GameReplay lê o diário e reconstrói o estado do jogo em
+ * qualquer ponto.
+ * 
+ * Formato, em little-endian:
+ * <pre>
+ * int   MAGIC
+ * int   VERSION
+ * long  semente do jogo
+ * registos, cada um começado por um byte:
+ *   0 .. 127  acontecimento: o byte é o GameEventType.ordinal(), seguido
+ *             de byte jogador, int sala e int turno (10 bytes no total)
+ *   ROOM      nova sala: short comprimento e o identificador em UTF-8;
+ *             as salas são numeradas pela ordem em que aparecem
+ *   PLAYER    novo jogador: short comprimento e o nome em UTF-8; os
+ *             jogadores são numerados pela ordem em que aparecem
+ * </pre>
+ * Num DOOR_OPENED a sala é a outra ponta do corredor aberto e o jogador
+ * fica onde estava. Uma sala ou jogador é declarado no diário antes do
+ * primeiro acontecimento que o refere. Como os registos só são acrescentados, um
+ * diário cortado (por exemplo, se o programa terminou a meio) continua a
+ * poder ser lido até ao último registo completo.
+ * 
+ * O diário só fica completo depois de close; cada instância deve ser
+ * usada por uma só thread.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class GameJournal implements GameEventSink, AutoCloseable {
+    static final int MAGIC = 0x4C4E4A47;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int EVENT_BYTES = 10;
+    static final byte ROOM = (byte) 0xFE;
+    static final byte PLAYER = (byte) 0xFF;
+    static final int MAX_PLAYERS = 256;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final VertexIndex<Room> rooms;
+    private final VertexIndex<Player> players;
+    private long events;
+
+    /**
+     * Cria o diário, substituindo o ficheiro se já existir.
+     *
+     * @param path Ficheiro do diário
+     * @param seed Semente do jogo (GameRandom.getSeed), para o poder repetir
+     * @throws IOException Se não for possível criar o ficheiro
+     */
+    public GameJournal(String path, long seed) throws IOException {
+        this.channel = FileChannel.open(Path.of(path), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.rooms = new VertexIndex<>();
+        this.players = new VertexIndex<>();
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(seed);
+    }
+
+    /**
+     * Número de acontecimentos escritos até agora.
+     *
+     * @return Acontecimentos escritos
+     */
+    public long getEventCount() {
+        return events;
+    }
+
+    @Override
+    public void onEvent(int turn, GameEventType type, Player player, Room room) {
+        try {
+            int playerNumber = players.get(player);
+            if (playerNumber == -1) {
+                playerNumber = players.size();
+                if (playerNumber == MAX_PLAYERS) {
+                    throw new IllegalStateException("O diário só suporta " + MAX_PLAYERS + " jogadores");
+                }
+                players.put(player, playerNumber);
+                declare(PLAYER, player.getName());
+            }
+            int roomNumber = -1;
+            if (room != null) {
+                roomNumber = rooms.get(room);
+                if (roomNumber == -1) {
+                    roomNumber = rooms.size();
+                    rooms.put(room, roomNumber);
+                    declare(ROOM, room.getId());
+                }
+            }
+
+            ensure(EVENT_BYTES);
+            buffer.put((byte) type.ordinal());
+            buffer.put((byte) playerNumber);
+            buffer.putInt(roomNumber);
+            buffer.putInt(turn);
+            events++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void declare(byte kind, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Nome demasiado longo para o diário");
+        }
+        ensure(3 + bytes.length);
+        buffer.put(kind);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Escreve no ficheiro os registos ainda em memória.
+     *
+     * @throws IOException Se a escrita falhar
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
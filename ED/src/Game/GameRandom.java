@@ -0,0 +1,99 @@
+package Game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fonte de números aleatórios de um jogo, criada a partir de uma semente
+ * explícita. Cada subsistema (acontecimentos, alavancas, enigmas, posições
+ * dos jogadores e geração de mapas) tem a sua sequência, separada por split
+ * da semente, para que usar mais números num deles não altere os dos
+ * outros. Com a mesma semente o jogo repete-se exatamente, e jogos em
+ * paralelo com fontes diferentes não partilham estado.
+ * 
+ * Cada instância deve ser usada por uma só thread.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class GameRandom {
+    private final long seed;
+    private final SplittableRandom events;
+    private final SplittableRandom levers;
+    private final SplittableRandom enigmas;
+    private final SplittableRandom players;
+    private final SplittableRandom map;
+    private final SplittableRandom children;
+
+    /**
+     * Construtor com uma semente nova, que pode ser consultada com getSeed
+     * para repetir o jogo.
+     */
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Construtor com uma semente dada.
+     *
+     * @param seed Semente do jogo
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        this.events = root.split();
+        this.levers = root.split();
+        this.enigmas = root.split();
+        this.players = root.split();
+        this.map = root.split();
+        this.children = root.split();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sequência dos acontecimentos aleatórios depois de cada movimento.
+     */
+    public SplittableRandom events() {
+        return events;
+    }
+
+    /**
+     * Sequência que decide se as alavancas funcionam.
+     */
+    public SplittableRandom levers() {
+        return levers;
+    }
+
+    /**
+     * Sequência da escolha dos enigmas e das respostas dos bots.
+     */
+    public SplittableRandom enigmas() {
+        return enigmas;
+    }
+
+    /**
+     * Sequência das salas iniciais dos jogadores.
+     */
+    public SplittableRandom players() {
+        return players;
+    }
+
+    /**
+     * Sequência da geração de mapas aleatórios.
+     */
+    public SplittableRandom map() {
+        return map;
+    }
+
+    /**
+     * Nova fonte independente, com uma semente tirada desta, por exemplo
+     * para cada jogo de um torneio.
+     *
+     * @return Fonte de números aleatórios filha
+     */
+    public GameRandom split() {
+        return new GameRandom(children.nextLong());
+    }
+}
@@ -0,0 +1,373 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Repetição de um jogo a partir do seu GameJournal. O ficheiro é mapeado
+ * em memória e lido registo a registo; depois de cada acontecimento o
+ * estado do jogo (turno, sala de cada jogador, corredores abertos por
+ * alavancas, vencedor e contagem de acontecimentos) fica como estava
+ * nesse momento do jogo. O resto do mapa não está no diário e vem do
+ * ficheiro do mapa.
+ * 
+ * As salas e jogadores são identificados pelos números atribuídos pelo
+ * diário; getRoomId e getPlayerName dão os respetivos nomes.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class GameReplay {
+    private static final GameEventType[] TYPES = GameEventType.values();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ByteBuffer data;
+    private final long seed;
+
+    private String[] roomIds;
+    private int roomCount;
+    private String[] playerNames;
+    private int[] playerRooms;
+    private int playerCount;
+    private int[] openedFrom;
+    private int[] openedTo;
+    private int openedCount;
+    private long[] eventCounts;
+    private long events;
+    private int turn;
+    private int winner;
+    private boolean finished;
+
+    private GameEventType lastType;
+    private int lastPlayer;
+    private int lastRoom;
+
+    private GameReplay(ByteBuffer data) {
+        this.data = data;
+        this.seed = data.getLong(8);
+        rewind();
+    }
+
+    /**
+     * Abre um diário para repetição.
+     *
+     * @param path Ficheiro do diário
+     * @return Repetição posicionada antes do primeiro acontecimento
+     * @throws IOException Se o ficheiro não existir ou não for um diário
+     */
+    public static GameReplay open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < GameJournal.HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Não é um diário de jogo: " + path);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt(0) != GameJournal.MAGIC || data.getInt(4) != GameJournal.VERSION) {
+                throw new IOException("Não é um diário de jogo: " + path);
+            }
+            return new GameReplay(data);
+        }
+    }
+
+    /**
+     * Volta ao início do jogo, antes do primeiro acontecimento.
+     */
+    public void rewind() {
+        data.position(GameJournal.HEADER_BYTES);
+        roomIds = new String[DEFAULT_CAPACITY];
+        roomCount = 0;
+        playerNames = new String[DEFAULT_CAPACITY];
+        playerRooms = new int[DEFAULT_CAPACITY];
+        playerCount = 0;
+        openedFrom = new int[DEFAULT_CAPACITY];
+        openedTo = new int[DEFAULT_CAPACITY];
+        openedCount = 0;
+        eventCounts = new long[TYPES.length];
+        events = 0;
+        turn = 0;
+        winner = -1;
+        finished = false;
+        lastType = null;
+        lastPlayer = -1;
+        lastRoom = -1;
+    }
+
+    /**
+     * Aplica o acontecimento seguinte.
+     *
+     * @return Verdadeiro se havia mais um acontecimento, falso no fim do
+     * diário
+     */
+    public boolean next() {
+        if (!readDeclarations()) {
+            return false;
+        }
+        ByteBuffer in = data;
+        int kind = in.get();
+        int player = in.get() & 0xFF;
+        int room = in.getInt();
+        turn = in.getInt();
+        apply(TYPES[kind], player, room);
+        return true;
+    }
+
+    /**
+     * Lê as declarações de salas e jogadores que estiverem antes do
+     * acontecimento seguinte, que não alteram o estado do jogo.
+     *
+     * @return Verdadeiro se a seguir há um acontecimento completo
+     */
+    private boolean readDeclarations() {
+        ByteBuffer in = data;
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte kind = in.get(start);
+            if (kind != GameJournal.ROOM && kind != GameJournal.PLAYER) {
+                return kind >= 0 && kind < TYPES.length && in.remaining() >= GameJournal.EVENT_BYTES;
+            }
+            in.get();
+            String name = readName(in);
+            if (name == null) {
+                in.position(start);
+                return false;
+            }
+            if (kind == GameJournal.ROOM) {
+                addRoom(name);
+            } else {
+                addPlayer(name);
+            }
+        }
+        return false;
+    }
+
+    private void apply(GameEventType type, int player, int room) {
+        lastType = type;
+        lastPlayer = player;
+        lastRoom = room;
+        eventCounts[type.ordinal()]++;
+        events++;
+        if (type == GameEventType.DOOR_OPENED) {
+            if (player < playerCount) {
+                addOpened(playerRooms[player], room);
+            }
+        } else if (player < playerCount) {
+            playerRooms[player] = room;
+        }
+        if (type == GameEventType.WINNER) {
+            winner = player;
+            finished = true;
+        } else if (type == GameEventType.TURN_LIMIT) {
+            finished = true;
+        }
+    }
+
+    /**
+     * Lê um nome de uma declaração, ou devolve null se o diário acabar a
+     * meio dele.
+     */
+    private static String readName(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return null;
+        }
+        int length = in.getShort();
+        if (length < 0 || in.remaining() < length) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void addRoom(String id) {
+        if (roomCount == roomIds.length) {
+            String[] larger = new String[roomIds.length * 2];
+            System.arraycopy(roomIds, 0, larger, 0, roomCount);
+            roomIds = larger;
+        }
+        roomIds[roomCount++] = id;
+    }
+
+    private void addOpened(int from, int to) {
+        if (openedCount == openedFrom.length) {
+            int[] largerFrom = new int[openedFrom.length * 2];
+            int[] largerTo = new int[openedFrom.length * 2];
+            System.arraycopy(openedFrom, 0, largerFrom, 0, openedCount);
+            System.arraycopy(openedTo, 0, largerTo, 0, openedCount);
+            openedFrom = largerFrom;
+            openedTo = largerTo;
+        }
+        openedFrom[openedCount] = from;
+        openedTo[openedCount] = to;
+        openedCount++;
+    }
+
+    private void addPlayer(String name) {
+        if (playerCount == playerNames.length) {
+            String[] largerNames = new String[playerNames.length * 2];
+            int[] largerRooms = new int[playerNames.length * 2];
+            System.arraycopy(playerNames, 0, largerNames, 0, playerCount);
+            System.arraycopy(playerRooms, 0, largerRooms, 0, playerCount);
+            playerNames = largerNames;
+            playerRooms = largerRooms;
+        }
+        playerNames[playerCount] = name;
+        playerRooms[playerCount] = -1;
+        playerCount++;
+    }
+
+    /**
+     * Aplica os acontecimentos até ao fim do turno indicado.
+     *
+     * @param lastTurn Último turno a aplicar
+     * @return Número de acontecimentos aplicados
+     */
+    public long replayToTurn(int lastTurn) {
+        long applied = 0;
+        while (readDeclarations() && data.getInt(data.position() + 6) <= lastTurn) {
+            next();
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Aplica todos os acontecimentos que faltam.
+     *
+     * @return Número de acontecimentos aplicados
+     */
+    public long replayAll() {
+        long applied = 0;
+        while (next()) {
+            applied++;
+        }
+        return applied;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Turno do último acontecimento aplicado, ou 0 antes do primeiro.
+     *
+     * @return Turno atual
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    public long getEventCount() {
+        return events;
+    }
+
+    public long getEventCount(GameEventType type) {
+        return eventCounts[type.ordinal()];
+    }
+
+    public GameEventType getLastType() {
+        return lastType;
+    }
+
+    public int getLastPlayer() {
+        return lastPlayer;
+    }
+
+    public int getLastRoom() {
+        return lastRoom;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public String getPlayerName(int player) {
+        return playerNames[player];
+    }
+
+    /**
+     * Sala onde o jogador estava no último acontecimento aplicado.
+     *
+     * @param player Número do jogador
+     * @return Número da sala, ou -1 se ainda não apareceu no jogo
+     */
+    public int getPlayerRoom(int player) {
+        return playerRooms[player];
+    }
+
+    /**
+     * Número de corredores abertos por alavancas até ao último
+     * acontecimento aplicado.
+     *
+     * @return Corredores abertos
+     */
+    public int getOpenedCorridorCount() {
+        return openedCount;
+    }
+
+    /**
+     * Indica se o corredor entre duas salas já foi aberto por uma
+     * alavanca.
+     *
+     * @param room1 Número de uma sala
+     * @param room2 Número da outra sala
+     * @return Verdadeiro se o corredor foi aberto
+     */
+    public boolean isCorridorOpened(int room1, int room2) {
+        for (int i = 0; i < openedCount; i++) {
+            if ((openedFrom[i] == room1 && openedTo[i] == room2)
+                    || (openedFrom[i] == room2 && openedTo[i] == room1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public String getRoomId(int room) {
+        return room >= 0 && room < roomCount ? roomIds[room] : null;
+    }
+
+    /**
+     * @return Número do vencedor, ou -1 se ainda não há vencedor
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return Verdadeiro depois do acontecimento que terminou o jogo
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Mostra o resultado de um diário e a velocidade da repetição.
+     *
+     * @param args Ficheiro do diário
+     * @throws IOException Se o ficheiro não puder ser lido
+     */
+    public static void main(String[] args) throws IOException {
+        GameReplay replay = open(args[0]);
+        long start = System.nanoTime();
+        long events = replay.replayAll();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Semente: " + replay.getSeed());
+        System.out.println("Turnos: " + replay.getTurn() + ", acontecimentos: " + events);
+        System.out.println("Corredores abertos: " + replay.getOpenedCorridorCount());
+        for (int p = 0; p < replay.getPlayerCount(); p++) {
+            System.out.println(" - " + replay.getPlayerName(p) + " em " + replay.getRoomId(replay.getPlayerRoom(p))
+                    + (p == replay.getWinner() ? " (VENCEDOR)" : ""));
+        }
+        System.out.printf("Repetido em %.3f ms (%.0f acontecimentos/s)%n", seconds * 1e3, events / seconds);
+    }
+}
@@ -0,0 +1,125 @@
+package Game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Relatório de jogos em NDJSON: um objeto JSON por linha, escrito à
+ * medida que os jogos decorrem em vez de só no fim.
+ * 
+ * Registos:
+ * <pre>
+ * {"turn": 3, "event": "MOVE", "player": "Bot 1", "room": "R2"}
+ * {"game": 0, "seed": 42, "turns": 57, "winner": "Bot 1", "players": [
+ *     {"name": "Bot 1", "bot": true, "room": "T", "log": ["..."]}]}
+ * </pre>
+ * Os acontecimentos só são escritos se pedidos no construtor e são
+ * passados ao ficheiro no início de cada turno; o resumo de um jogo é
+ * passado logo que é escrito. Como cada linha é escrita inteira, um
+ * relatório interrompido a meio de um jogo contém todos os turnos até
+ * ao anterior e pode ser lido linha a linha. A memória usada não depende
+ * do número de jogos.
+ * 
+ * Os métodos de escrita são sincronizados, para que vários jogos em
+ * paralelo possam escrever no mesmo relatório; as linhas de jogos
+ * diferentes distinguem-se pelo campo "game".
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class GameReport implements GameEventSink, AutoCloseable {
+    private final JsonWriter out;
+    private final boolean events;
+    private int lastTurn;
+
+    /**
+     * Cria o relatório, substituindo o ficheiro se já existir.
+     *
+     * @param path   Ficheiro do relatório
+     * @param events Verdadeiro para escrever também cada acontecimento,
+     *               falso para escrever só o resumo de cada jogo
+     * @throws IOException Se não for possível criar o ficheiro
+     */
+    public GameReport(String path, boolean events) throws IOException {
+        this.out = JsonWriter.open(path, false, null);
+        this.events = events;
+    }
+
+    @Override
+    public synchronized void onEvent(int turn, GameEventType type, Player player, Room room) {
+        if (!events) {
+            return;
+        }
+        try {
+            if (turn != lastTurn) {
+                out.flush();
+                lastTurn = turn;
+            }
+            out.beginObject()
+                    .name("turn").value(turn)
+                    .name("event").value(type.name())
+                    .name("player").value(player.getName())
+                    .name("room").value(room == null ? null : room.getId())
+                    .endObject();
+            out.endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escreve o resumo de um jogo terminado e passa-o ao ficheiro.
+     *
+     * @param game   Número do jogo
+     * @param engine Motor do jogo terminado
+     */
+    public synchronized void writeGame(long game, GameEngine engine) {
+        Player winner = engine.getWinner();
+        try {
+            out.beginObject()
+                    .name("game").value(game)
+                    .name("seed").value(engine.getRandom().getSeed())
+                    .name("turns").value(engine.getTurnCount())
+                    .name("winner").value(winner == null ? null : winner.getName())
+                    .name("players").beginArray();
+            Iterator<Player> it = engine.getPlayers();
+            while (it.hasNext()) {
+                writePlayer(out, it.next());
+            }
+            out.endArray().endObject();
+            out.endRecord();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escreve um jogador como objeto JSON, com o seu histórico.
+     *
+     * @param out    Escritor de destino
+     * @param player Jogador
+     */
+    static void writePlayer(JsonWriter out, Player player) {
+        Room room = player.getCurrentRoom();
+        out.beginObject()
+                .name("name").value(player.getName())
+                .name("bot").value(player.isBot())
+                .name("room").value(room == null ? null : room.getId())
+                .name("log").beginArray();
+        for (String entry : player.getHistoryLog()) {
+            out.value(entry);
+        }
+        out.endArray().endObject();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritor de JSON em fluxo, em UTF-8, com as strings escapadas segundo
+ * o RFC 8259. Os valores são acumulados num buffer e passados ao canal
+ * só entre registos (valores de topo), nunca a meio de um: um ficheiro
+ * NDJSON escrito com ele, um registo por linha, contém sempre apenas
+ * linhas completas, mesmo que o programa termine a meio de um jogo. A
+ * memória usada é limitada pelo maior registo.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class JsonWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int DEFAULT_DEPTH = 8;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final WritableByteChannel channel;
+    private final String indent;
+    private ByteBuffer buffer;
+
+    // hasElements[d]: o contentor aberto no nível d já tem elementos
+    private boolean[] hasElements;
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * @param channel Canal de destino
+     * @param indent  Indentação de cada nível, ou null para JSON compacto
+     *                (obrigatório em NDJSON)
+     */
+    public JsonWriter(WritableByteChannel channel, String indent) {
+        this.channel = channel;
+        this.indent = indent;
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.hasElements = new boolean[DEFAULT_DEPTH];
+    }
+
+    /**
+     * Abre um ficheiro para escrita.
+     *
+     * @param path   Ficheiro de destino
+     * @param append Verdadeiro para acrescentar ao fim, falso para o
+     *               substituir
+     * @param indent Indentação de cada nível, ou null para JSON compacto
+     * @return Escritor sobre o ficheiro
+     * @throws IOException Se não for possível abrir o ficheiro
+     */
+    public static JsonWriter open(String path, boolean append, String indent) throws IOException {
+        FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        return new JsonWriter(channel, indent);
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        put((byte) '{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        pop();
+        put((byte) '}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        put((byte) '[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        pop();
+        put((byte) ']');
+        return this;
+    }
+
+    /**
+     * Nome do próximo membro do objeto aberto.
+     *
+     * @param name Nome do membro
+     * @return Este escritor
+     */
+    public JsonWriter name(String name) {
+        if (depth == 0) {
+            throw new IllegalStateException("Nome fora de um objeto");
+        }
+        separate();
+        string(name);
+        put((byte) ':');
+        if (indent != null) {
+            put((byte) ' ');
+        }
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Escreve um número; NaN e infinito não existem em JSON e são
+     * escritos como null.
+     */
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        beforeValue();
+        ascii(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        beforeValue();
+        ascii("null");
+        return this;
+    }
+
+    /**
+     * Termina um registo NDJSON: escreve o fim de linha depois de um
+     * valor de topo e passa o buffer ao canal se estiver quase cheio.
+     *
+     * @throws IOException Se a escrita falhar
+     */
+    public void endRecord() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("Registo por terminar");
+        }
+        put((byte) '\n');
+        if (buffer.position() >= BUFFER_BYTES / 2) {
+            flush();
+        }
+    }
+
+    /**
+     * Passa ao canal os registos completos que estão no buffer; o registo
+     * em curso, se houver, fica para depois.
+     *
+     * @throws IOException Se a escrita falhar
+     */
+    public void flush() throws IOException {
+        if (depth != 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void push() {
+        if (depth == hasElements.length) {
+            boolean[] larger = new boolean[hasElements.length * 2];
+            System.arraycopy(hasElements, 0, larger, 0, depth);
+            hasElements = larger;
+        }
+        hasElements[depth++] = false;
+    }
+
+    private void pop() {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Nenhum contentor para fechar");
+        }
+        depth--;
+        if (hasElements[depth]) {
+            newline(depth);
+        }
+    }
+
+    /**
+     * Vírgula e mudança de linha antes de um elemento de um contentor.
+     */
+    private void separate() {
+        if (depth == 0) {
+            return;
+        }
+        if (hasElements[depth - 1]) {
+            put((byte) ',');
+        }
+        hasElements[depth - 1] = true;
+        newline(depth);
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void newline(int level) {
+        if (indent == null) {
+            return;
+        }
+        put((byte) '\n');
+        for (int i = 0; i < level; i++) {
+            ascii(indent);
+        }
+    }
+
+    private void string(String s) {
+        put((byte) '"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20) {
+                switch (c) {
+                    case '\n':
+                        ascii("\\n");
+                        break;
+                    case '\r':
+                        ascii("\\r");
+                        break;
+                    case '\t':
+                        ascii("\\t");
+                        break;
+                    case '\b':
+                        ascii("\\b");
+                        break;
+                    case '\f':
+                        ascii("\\f");
+                        break;
+                    default:
+                        escape(c);
+                }
+            } else if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                put((byte) (0xF0 | (cp >> 18)));
+                put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate isolado: não tem codificação UTF-8 válida
+                escape(c);
+            } else {
+                put((byte) (0xE0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        put((byte) '"');
+    }
+
+    private void escape(char c) {
+        ascii("\\u");
+        put(HEX[(c >> 12) & 0xF]);
+        put(HEX[(c >> 8) & 0xF]);
+        put(HEX[(c >> 4) & 0xF]);
+        put(HEX[c & 0xF]);
+    }
+
+    private void ascii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            put((byte) s.charAt(i));
+        }
+    }
+
+    /**
+     * Acrescenta um byte, aumentando o buffer se estiver cheio, para que
+     * o registo em curso nunca seja escrito em parte.
+     */
+    private void put(byte b) {
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.put(b);
+    }
+}
@@ -16,10 +16,12 @@ public class Main {
     /**
      * Método principal que inicia a aplicação.
      * 
-     * @param args Argumentos da linha de comando (não utilizados)
+     * @param args Argumentos da linha de comando: opcionalmente a semente
+     *             mostrada num jogo ou mapa anterior, para o repetir
      */
     public static void main(String[] args) {
         Scanner s = new Scanner(System.in);
+        Long seed = args.length > 0 ? Long.parseLong(args[0]) : null;
 
         while (true) {
             System.out.println("\n=== LABIRINTO DA GLORIA ===");
@@ -35,18 +37,23 @@ public class Main {
                 break;
 
             if (op.equals("2")) {
-                MapEditor editor = new MapEditor();
+                MapEditor editor = new MapEditor(newRandom(seed));
                 editor.generateAndSaveMap();
             } else if (op.equals("1")) {
-                startGame(s);
+                startGame(s, newRandom(seed));
             } else {
                 System.out.println("Opção inválida.");
             }
         }
     }
 
-    private static void startGame(Scanner s) {
+    private static GameRandom newRandom(Long seed) {
+        return seed != null ? new GameRandom(seed) : new GameRandom();
+    }
+
+    private static void startGame(Scanner s, GameRandom random) {
         GameEngine game = new GameEngine();
+        game.setRandom(random);
 
         System.out.print("Ficheiro do mapa (padrão: src/Map/map.json): ");
         String filename = s.nextLine().trim();
@@ -102,7 +109,7 @@ public class Main {
             else
                 humanCount++;
 
-            Room startRoom = selectStartRoom(s, entArray, playerName, isBot);
+            Room startRoom = selectStartRoom(s, entArray, playerName, isBot, random);
 
             game.addPlayer(playerName, isBot, startRoom);
             System.out.println("* " + playerName + " (" + (isBot ? "Bot" : "Humano") + ") em " + startRoom.getId());
@@ -185,7 +192,8 @@ public class Main {
         }
     }
 
-    private static Room selectStartRoom(Scanner s, Object[] entArray, String playerName, boolean isBot) {
+    private static Room selectStartRoom(Scanner s, Object[] entArray, String playerName, boolean isBot,
+            GameRandom random) {
         if (entArray.length == 1) {
             Room room = (Room) entArray[0];
             System.out.println("A começar em: " + room.getId());
@@ -193,7 +201,7 @@ public class Main {
         }
 
         if (isBot) {
-            Room room = (Room) entArray[(int) (Math.random() * entArray.length)];
+            Room room = (Room) entArray[random.players().nextInt(entArray.length)];
             System.out.println("A começar em: " + room.getId() + " (aleatório)");
             return room;
         }
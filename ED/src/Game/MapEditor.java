@@ -5,6 +5,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * Editor de mapas do jogo.
@@ -29,11 +30,23 @@ public class MapEditor {
     private ArrayUnorderedList<Room> rooms;
     private ArrayUnorderedList<TempConnection> connections;
     private Scanner scanner;
+    private GameRandom random;
 
     public MapEditor() {
+        this(new GameRandom());
+    }
+
+    /**
+     * Construtor do editor com uma fonte de números aleatórios dada, para
+     * que a mesma semente gere o mesmo mapa.
+     *
+     * @param random Fonte de números aleatórios
+     */
+    public MapEditor(GameRandom random) {
         rooms = new ArrayUnorderedList<>();
         connections = new ArrayUnorderedList<>();
         scanner = new Scanner(System.in);
+        this.random = random;
     }
 
     public void generateAndSaveMap() {
@@ -54,6 +67,7 @@ public class MapEditor {
         rooms = new ArrayUnorderedList<>();
         connections = new ArrayUnorderedList<>();
 
+        SplittableRandom rng = random.map();
         Room[] tempRooms = new Room[count];
         String[] interactions = { "none", "none", "enigma", "lever", "none", "enigma" };
 
@@ -81,12 +95,12 @@ public class MapEditor {
         int normalRooms = count - numEntrances - 1;
 
         for (int i = 0; i < normalRooms; i++) {
-            String interact = interactions[(int) (Math.random() * interactions.length)];
-            int parentIndex = (int) (Math.random() * currentIndex);
+            String interact = interactions[rng.nextInt(interactions.length)];
+            int parentIndex = rng.nextInt(currentIndex);
             Room parent = tempRooms[parentIndex];
 
-            double angle = Math.random() * 2 * Math.PI;
-            int dist = 100 + (int) (Math.random() * 100);
+            double angle = rng.nextDouble() * 2 * Math.PI;
+            int dist = 100 + rng.nextInt(100);
             int newX = Math.max(50, Math.min(950, parent.getX() + (int) (Math.cos(angle) * dist)));
             int newY = Math.max(50, Math.min(750, parent.getY() + (int) (Math.sin(angle) * dist)));
 
@@ -110,7 +124,7 @@ public class MapEditor {
             }
 
             if (!hasConnection) {
-                int targetIndex = (int) (Math.random() * count);
+                int targetIndex = rng.nextInt(count);
                 if (targetIndex != e) {
                     connections.addToRear(new TempConnection(tempRooms[e].getId(), tempRooms[targetIndex].getId(), 1));
                 }
@@ -120,18 +134,19 @@ public class MapEditor {
         // 5. Adicionar complexidade com loops e portas trancadas
         int extraEdges = count / 3;
         for (int k = 0; k < extraEdges; k++) {
-            int i1 = (int) (Math.random() * count);
-            int i2 = (int) (Math.random() * count);
+            int i1 = rng.nextInt(count);
+            int i2 = rng.nextInt(count);
 
             if (i1 != i2) {
                 boolean isTreasure = (i1 == 0 || i2 == 0);
-                int cost = isTreasure ? 1 : (Math.random() < 0.3 ? 1000 : 1);
+                int cost = isTreasure ? 1 : (rng.nextDouble() < 0.3 ? 1000 : 1);
                 connections.addToRear(new TempConnection(tempRooms[i1].getId(), tempRooms[i2].getId(), cost));
             }
         }
 
         System.out.println("Mapa gerado!");
         System.out.println("Salas: " + count + ", Entradas: " + numEntrances);
+        System.out.println("Semente: " + random.getSeed());
     }
 
     private void saveMap() {
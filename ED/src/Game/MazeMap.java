@@ -1,7 +1,16 @@
 package Game;
 
+import Collections.Grafos.AllPairsShortestPaths;
+import Collections.Grafos.Landmarks;
+import Collections.Grafos.MappedNetwork;
+import Collections.Grafos.Neighbor;
 import Collections.Grafos.NetworkBiDirectional;
+import Collections.Grafos.NetworkSnapshot;
+import Collections.Grafos.PathResult;
+import Collections.Grafos.ShortestPathTree;
 import Collections.ListasIterador.Classes.ArrayUnorderedList;
+import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 
 /**
@@ -14,33 +23,345 @@ import java.util.Iterator;
  */
 public class MazeMap {
 
+    /**
+     * Número máximo de salas para o qual a tabela de caminhos entre todos
+     * os pares é calculada por omissão (cerca de 32 MB).
+     */
+    public static final int DEFAULT_PRECOMPUTE_LIMIT = 2048;
+
+    /**
+     * Número de landmarks usados por omissão na heurística ALT.
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
     private NetworkBiDirectional<Room> graph;
     private ArrayUnorderedList<Room> roomList;
+    private EuclideanHeuristic heuristic;
+    private AllPairsShortestPaths<Room> allPairs;
+    private Room treasureRoom;
+    private ShortestPathTree<Room> treasureTree;
+    private Landmarks<Room> landmarks;
 
     /**
      * Construtor do mapa.
      * Inicializa o grafo e a lista de salas.
      */
     public MazeMap() {
-        this.graph = new NetworkBiDirectional<>();
+        this(false);
+    }
+
+    /**
+     * Construtor do mapa com escolha do armazenamento do grafo.
+     * Listas de adjacência poupam memória em mapas grandes com poucos
+     * corredores por sala.
+     *
+     * @param sparseStorage Verdadeiro para usar listas de adjacência,
+     *                      falso para a matriz de adjacência
+     */
+    public MazeMap(boolean sparseStorage) {
+        this.graph = new NetworkBiDirectional<>(sparseStorage);
         this.roomList = new ArrayUnorderedList<>();
+        this.heuristic = new EuclideanHeuristic();
     }
 
     public void addRoom(Room room) {
         graph.addVertex(room);
         roomList.addToRear(room);
+        allPairs = null;
+        treasureTree = null;
     }
 
     public void addCorridor(Room from, Room to, double weight) {
+        double oldWeight = graph.edgeWeight(from, to);
         graph.addEdge(from, to, weight);
+        heuristic.addCorridor(from, to, weight);
+        corridorChanged(from, to, oldWeight, weight);
     }
 
     public void openPassage(Room from, Room to) {
-        graph.addEdge(from, to, 1.0);
+        addCorridor(from, to, 1.0);
+    }
+
+    /**
+     * Mantém as estruturas de caminhos pré-calculados depois de um corredor
+     * mudar de peso. Se o peso desceu, são reparadas só nas salas cuja
+     * distância melhora. Se subiu, a árvore do tesouro volta a procurar
+     * caminho só para as salas que passavam por esse corredor e a tabela
+     * de todos os pares é descartada. Os landmarks continuam válidos quando
+     * um peso sobe, mas deixam de o ser quando desce, e são descartados.
+     */
+    private void corridorChanged(Room from, Room to, double oldWeight, double newWeight) {
+        int fromIndex = graph.getIndex(from);
+        int toIndex = graph.getIndex(to);
+        if (fromIndex == -1 || toIndex == -1 || newWeight == oldWeight) {
+            return;
+        }
+
+        if (newWeight < oldWeight) {
+            if (allPairs != null) {
+                allPairs.edgeDecreased(fromIndex, toIndex, newWeight);
+            }
+            if (treasureTree != null) {
+                treasureTree.edgeDecreased(fromIndex, toIndex, newWeight);
+            }
+            landmarks = null;
+        } else {
+            allPairs = null;
+            if (treasureTree != null) {
+                treasureTree.edgeIncreased(fromIndex, toIndex);
+            }
+        }
+    }
+
+    /**
+     * Define a sala do tesouro. O mapa mantém a árvore de caminhos mais
+     * curtos de todas as salas até ela.
+     *
+     * @param treasureRoom Sala do tesouro
+     */
+    public void setTreasureRoom(Room treasureRoom) {
+        this.treasureRoom = treasureRoom;
+        this.treasureTree = null;
+    }
+
+    public Room getTreasureRoom() {
+        return treasureRoom;
+    }
+
+    /**
+     * Árvore de caminhos mais curtos até ao tesouro, construída na primeira
+     * utilização depois de o mapa ter sido alterado.
+     */
+    private ShortestPathTree<Room> getTreasureTree() {
+        if (treasureTree == null && treasureRoom != null) {
+            int root = graph.getIndex(treasureRoom);
+            if (root != -1) {
+                treasureTree = new ShortestPathTree<>(graph, root);
+            }
+        }
+        return treasureTree;
+    }
+
+    /**
+     * Sala seguinte no caminho mais curto até ao tesouro. É uma consulta
+     * direta à árvore do tesouro, partilhada por todos os bots, que só é
+     * recalculada ou reparada quando o mapa muda.
+     *
+     * @param from Sala atual
+     * @return Próxima sala, ou null se a sala for o tesouro ou não houver
+     * caminho até ele
+     */
+    public Room getNextStepToTreasure(Room from) {
+        if (getTreasureTree() == null) {
+            return null;
+        }
+        return treasureTree.nextVertex(graph.getIndex(from));
+    }
+
+    /**
+     * Distância do caminho mais curto de uma sala até ao tesouro.
+     *
+     * @param from Sala atual
+     * @return Distância até ao tesouro, ou infinito se não houver caminho
+     */
+    public double getDistanceToTreasure(Room from) {
+        int fromIndex = graph.getIndex(from);
+        if (fromIndex == -1 || getTreasureTree() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return treasureTree.distance(fromIndex);
+    }
+
+    /**
+     * Guarda as salas e corredores do mapa numa cópia binária, que
+     * loadSnapshot lê muito mais depressa do que o ficheiro JSON.
+     *
+     * @param path Ficheiro de destino
+     * @throws IOException Se não for possível escrever o ficheiro
+     */
+    public void saveSnapshot(String path) throws IOException {
+        NetworkSnapshot.save(graph, new RoomCodec(), path);
+    }
+
+    /**
+     * Acrescenta ao mapa as salas e corredores de uma cópia binária
+     * guardada por saveSnapshot. O ficheiro é mapeado em memória; cada sala
+     * é procurada uma vez para saber o seu índice no grafo e os corredores
+     * são depois acrescentados diretamente por esses índices, sem procurar
+     * as salas de cada corredor.
+     *
+     * @param path Ficheiro da cópia binária
+     * @throws IOException Se o ficheiro não existir ou não for uma cópia
+     *                     binária válida; nesse caso o mapa não é alterado
+     */
+    public void loadSnapshot(String path) throws IOException {
+        MappedNetwork<Room> snapshot = NetworkSnapshot.open(path, new RoomCodec());
+        int count = snapshot.indexBound();
+        int[] index = new int[count];
+        for (int i = 0; i < count; i++) {
+            Room room = snapshot.getVertex(i);
+            addRoom(room);
+            index[i] = graph.getIndex(room);
+        }
+        for (int i = 0; i < count; i++) {
+            Room from = snapshot.getVertex(i);
+            for (int k = 0; k < snapshot.neighborCount(i); k++) {
+                int j = snapshot.neighborAt(i, k);
+                if (j >= i) {
+                    double weight = snapshot.neighborWeight(i, k);
+                    graph.addEdge(index[i], index[j], weight);
+                    heuristic.addCorridor(from, snapshot.getVertex(j), weight);
+                    landmarks = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cópia independente do mapa, com as mesmas salas e corredores, para
+     * um jogo poder abrir portas sem alterar o original. As salas são
+     * partilhadas, por não mudarem; as estruturas de caminhos pré-calculados
+     * não são copiadas e a árvore do tesouro é construída quando for
+     * precisa. O original só é lido, por isso vários jogos podem copiá-lo
+     * ao mesmo tempo.
+     *
+     * @return Novo mapa igual a este
+     */
+    public MazeMap copy() {
+        MazeMap copy = new MazeMap(graph.isSparse());
+        for (int i = 0; i < graph.indexBound(); i++) {
+            if (graph.indexIsValid(i)) {
+                copy.addRoom(graph.getVertex(i));
+            }
+        }
+        for (int i = 0; i < graph.indexBound(); i++) {
+            if (!graph.indexIsValid(i)) {
+                continue;
+            }
+            for (int k = 0; k < graph.neighborCount(i); k++) {
+                int j = graph.neighborAt(i, k);
+                double weight = graph.neighborWeight(i, k);
+                if (j >= i && weight < Double.POSITIVE_INFINITY) {
+                    copy.addCorridor(graph.getVertex(i), graph.getVertex(j), weight);
+                }
+            }
+        }
+        copy.setTreasureRoom(treasureRoom);
+        return copy;
+    }
+
+    /**
+     * Calcula a tabela de distâncias e próximos passos entre todos os pares
+     * de salas, em paralelo. A partir daí getShortestPath e getWeight são
+     * consultas diretas à tabela, até o mapa voltar a ser alterado.
+     *
+     * @param maxRooms Número máximo de salas; acima dele a tabela não é
+     *                 calculada, por ocupar demasiada memória
+     * @return Verdadeiro se a tabela foi calculada
+     */
+    public boolean precomputePaths(int maxRooms) {
+        int rooms = graph.size();
+        if (rooms == 0 || rooms > maxRooms || rooms > AllPairsShortestPaths.MAX_VERTICES) {
+            allPairs = null;
+            return false;
+        }
+        allPairs = new AllPairsShortestPaths<>(graph);
+        return true;
+    }
+
+    public boolean hasPrecomputedPaths() {
+        return allPairs != null;
+    }
+
+    /**
+     * Prepara a heurística ALT do A*: escolhe landmarks e calcula a
+     * distância de cada um a todas as salas, em paralelo. Se o ficheiro
+     * indicado tiver landmarks guardados para este mesmo mapa, são lidos
+     * dele; caso contrário são calculados e guardados nele.
+     *
+     * @param count     Número de landmarks
+     * @param cacheFile Ficheiro dos landmarks, ou null para não usar ficheiro
+     * @return Verdadeiro se os landmarks foram lidos do ficheiro
+     * @throws IOException Se os landmarks foram calculados mas não puderam
+     *                     ser guardados no ficheiro; ficam na mesma
+     *                     preparados
+     */
+    public boolean prepareLandmarks(int count, String cacheFile) throws IOException {
+        if (cacheFile != null && new File(cacheFile).exists()) {
+            try {
+                landmarks = Landmarks.load(graph, cacheFile);
+                if (landmarks != null) {
+                    return true;
+                }
+            } catch (IOException e) {
+                landmarks = null;
+            }
+        }
+
+        landmarks = Landmarks.build(graph, count);
+        if (cacheFile != null) {
+            landmarks.save(cacheFile);
+        }
+        return false;
+    }
+
+    public boolean hasLandmarks() {
+        return landmarks != null;
     }
 
+    /**
+     * Caminho mais curto entre duas salas. Usa a tabela pré-calculada se
+     * existir, ou a árvore de caminhos até ao tesouro se o destino for o
+     * tesouro; caso contrário corre A* com os landmarks como heurística, se
+     * tiverem sido preparados, ou com a distância euclidiana entre salas.
+     *
+     * @param start  Sala de partida
+     * @param target Sala de destino
+     * @return Iterador sobre as salas do caminho, incluindo partida e destino
+     */
     public Iterator<Room> getShortestPath(Room start, Room target) {
-        return graph.iteratorShortestPath(start, target);
+        if (allPairs != null) {
+            return allPairs.iteratorShortestPath(start, target);
+        }
+        if (target != null && target.equals(treasureRoom) && getTreasureTree() != null) {
+            return treasureTree.iteratorPathToRoot(graph.getIndex(start));
+        }
+        if (landmarks != null) {
+            return graph.iteratorShortestPath(start, target, landmarks);
+        }
+        return graph.iteratorShortestPath(start, target, heuristic);
+    }
+
+    /**
+     * Caminho mais curto entre duas salas, com o peso de cada corredor e o
+     * custo total, obtidos da mesma pesquisa que getShortestPath faria. Quem
+     * precisa do caminho e do custo não tem de chamar também getWeight.
+     *
+     * @param start  Sala de partida
+     * @param target Sala de destino
+     * @return Caminho encontrado (só a sala de partida, com custo 0, se
+     * as duas salas forem a mesma), vazio se não houver caminho
+     */
+    public PathResult<Room> getPath(Room start, Room target) {
+        if (allPairs != null) {
+            return allPairs.shortestPath(start, target);
+        }
+        if (target != null && target.equals(treasureRoom) && getTreasureTree() != null) {
+            return treasureTree.pathToRoot(graph.getIndex(start));
+        }
+        if (landmarks != null) {
+            return graph.shortestPath(start, target, landmarks);
+        }
+        return graph.shortestPath(start, target, heuristic);
+    }
+
+    /**
+     * Número de salas expandidas pela última pesquisa de caminho mais curto.
+     *
+     * @return Salas expandidas na última pesquisa
+     */
+    public int getLastExpandedRooms() {
+        return graph.getLastExpandedCount();
     }
 
     public Iterator<Room> getRooms() {
@@ -48,6 +369,12 @@ public class MazeMap {
     }
 
     public double getWeight(Room from, Room to) {
+        if (allPairs != null) {
+            return allPairs.distance(from, to);
+        }
+        if (to != null && to.equals(treasureRoom) && getTreasureTree() != null) {
+            return getDistanceToTreasure(from);
+        }
         return graph.shortestPathWeight(from, to);
     }
 
@@ -62,26 +389,50 @@ public class MazeMap {
         return null;
     }
 
+    /**
+     * Verifica se duas salas estão ligadas diretamente por um corredor
+     * (aberto ou trancado).
+     *
+     * @param a Primeira sala
+     * @param b Segunda sala
+     * @return Verdadeiro se existir um corredor entre as salas
+     */
     public boolean isNeighbor(Room a, Room b) {
         if (a == null || b == null || a.equals(b))
             return false;
 
-        Iterator<Room> it = graph.iteratorShortestPath(a, b);
-        int steps = 0;
-        while (it.hasNext()) {
-            it.next();
-            steps++;
-        }
-        return steps == 2;
+        return graph.isAdjacent(a, b);
+    }
+
+    /**
+     * Peso do corredor que liga diretamente duas salas.
+     *
+     * @param from Sala de origem
+     * @param to   Sala de destino
+     * @return Peso do corredor, ou infinito se as salas não forem vizinhas
+     */
+    public double getCorridorWeight(Room from, Room to) {
+        return graph.edgeWeight(from, to);
+    }
+
+    /**
+     * Devolve os corredores que saem de uma sala, com a sala vizinha
+     * e o respetivo peso.
+     *
+     * @param current Sala de origem
+     * @return Iterador sobre as salas vizinhas e pesos dos corredores
+     */
+    public Iterator<Neighbor<Room>> getCorridors(Room current) {
+        return graph.iteratorNeighbors(current);
     }
 
     public Iterator<Room> getNeighbors(Room current) {
         ArrayUnorderedList<Room> neighbors = new ArrayUnorderedList<>();
-        Iterator<Room> allRooms = getRooms();
+        Iterator<Neighbor<Room>> corridors = getCorridors(current);
 
-        while (allRooms.hasNext()) {
-            Room r = allRooms.next();
-            if (!r.equals(current) && isNeighbor(current, r)) {
+        while (corridors.hasNext()) {
+            Room r = corridors.next().getVertex();
+            if (!r.equals(current)) {
                 neighbors.addToRear(r);
             }
         }
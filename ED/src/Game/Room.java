@@ -67,6 +67,11 @@ public class Room implements Comparable<Room> {
         return id != null ? id.equals(room.id) : room.id == null;
     }
 
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
     @Override
     public int compareTo(Room o) {
         return this.id.compareTo(o.id);
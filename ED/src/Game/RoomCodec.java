@@ -0,0 +1,71 @@
+package Game;
+
+import Collections.Grafos.VertexCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converte salas em bytes e vice-versa, para guardar o mapa numa cópia
+ * binária (NetworkSnapshot). Cada sala ocupa as coordenadas x e y seguidas
+ * do identificador, do tipo e da interação, cada texto precedido do seu
+ * comprimento em bytes (-1 para null), tudo em little-endian.
+ *
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class RoomCodec implements VertexCodec<Room> {
+
+    @Override
+    public byte[] encode(Room room) {
+        byte[] id = bytesOf(room.getId());
+        byte[] type = bytesOf(room.getType());
+        byte[] interaction = bytesOf(room.getInteraction());
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + lengthOf(id) + lengthOf(type) + lengthOf(interaction))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(room.getX());
+        buffer.putInt(room.getY());
+        putText(buffer, id);
+        putText(buffer, type);
+        putText(buffer, interaction);
+        return buffer.array();
+    }
+
+    @Override
+    public Room decode(ByteBuffer data) {
+        int x = data.getInt();
+        int y = data.getInt();
+        String id = getText(data);
+        String type = getText(data);
+        String interaction = getText(data);
+        return new Room(id, type, interaction, x, y);
+    }
+
+    private static byte[] bytesOf(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int lengthOf(byte[] text) {
+        return Integer.BYTES + (text == null ? 0 : text.length);
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] text) {
+        if (text == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(text.length);
+            buffer.put(text);
+        }
+    }
+
+    private static String getText(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] text = new byte[length];
+        data.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package Game;
+
+/**
+ * Resultados agregados de um torneio de jogos só com bots: vitórias por
+ * entrada, distribuição do número de turnos e frequência de cada tipo de
+ * acontecimento. Cada parte do torneio acumula os seus resultados num
+ * objeto próprio, e as partes são depois juntadas com merge.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class TournamentResult {
+    private static final int DEFAULT_HISTOGRAM = 64;
+
+    private final String[] entrances;
+    private final long[] startsByEntrance;
+    private final long[] winsByEntrance;
+    private long[] turnHistogram;
+    private final long[] eventCounts;
+    private long games;
+    private long gamesWithoutWinner;
+    private long totalTurns;
+
+    /**
+     * @param entrances Identificadores das salas de entrada
+     */
+    public TournamentResult(String[] entrances) {
+        this.entrances = entrances;
+        this.startsByEntrance = new long[entrances.length];
+        this.winsByEntrance = new long[entrances.length];
+        this.turnHistogram = new long[DEFAULT_HISTOGRAM];
+        this.eventCounts = new long[GameEventType.values().length];
+    }
+
+    /**
+     * Regista um jogador que começou numa entrada.
+     *
+     * @param entrance Índice da entrada
+     */
+    public void recordStart(int entrance) {
+        startsByEntrance[entrance]++;
+    }
+
+    public void recordEvent(GameEventType type) {
+        eventCounts[type.ordinal()]++;
+    }
+
+    /**
+     * Regista o fim de um jogo.
+     *
+     * @param turns          Turnos jogados
+     * @param winnerEntrance Entrada de onde partiu o vencedor, ou -1 se o
+     *                       jogo terminou sem vencedor
+     */
+    public void recordGame(int turns, int winnerEntrance) {
+        games++;
+        totalTurns += turns;
+        ensureHistogram(turns + 1);
+        turnHistogram[turns]++;
+        if (winnerEntrance == -1) {
+            gamesWithoutWinner++;
+        } else {
+            winsByEntrance[winnerEntrance]++;
+        }
+    }
+
+    /**
+     * Junta a este os resultados de outra parte do mesmo torneio.
+     *
+     * @param other Resultados a juntar
+     */
+    public void merge(TournamentResult other) {
+        games += other.games;
+        gamesWithoutWinner += other.gamesWithoutWinner;
+        totalTurns += other.totalTurns;
+        for (int i = 0; i < entrances.length; i++) {
+            startsByEntrance[i] += other.startsByEntrance[i];
+            winsByEntrance[i] += other.winsByEntrance[i];
+        }
+        ensureHistogram(other.turnHistogram.length);
+        for (int i = 0; i < other.turnHistogram.length; i++) {
+            turnHistogram[i] += other.turnHistogram[i];
+        }
+        for (int i = 0; i < eventCounts.length; i++) {
+            eventCounts[i] += other.eventCounts[i];
+        }
+    }
+
+    /**
+     * Aumenta o histograma dos turnos para ter pelo menos o tamanho pedido.
+     */
+    private void ensureHistogram(int length) {
+        if (length > turnHistogram.length) {
+            long[] larger = new long[Math.max(length, turnHistogram.length * 2)];
+            System.arraycopy(turnHistogram, 0, larger, 0, turnHistogram.length);
+            turnHistogram = larger;
+        }
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getGamesWithoutWinner() {
+        return gamesWithoutWinner;
+    }
+
+    public int getEntranceCount() {
+        return entrances.length;
+    }
+
+    public String getEntrance(int entrance) {
+        return entrances[entrance];
+    }
+
+    /**
+     * Fração dos jogadores que partiram de uma entrada e ganharam.
+     *
+     * @param entrance Índice da entrada
+     * @return Taxa de vitória, entre 0 e 1
+     */
+    public double getWinRate(int entrance) {
+        return startsByEntrance[entrance] == 0 ? 0 : (double) winsByEntrance[entrance] / startsByEntrance[entrance];
+    }
+
+    public long getWins(int entrance) {
+        return winsByEntrance[entrance];
+    }
+
+    public double getMeanTurns() {
+        return games == 0 ? 0 : (double) totalTurns / games;
+    }
+
+    /**
+     * Número de turnos abaixo do qual terminou uma dada fração dos jogos.
+     *
+     * @param fraction Fração entre 0 e 1 (0.5 para a mediana)
+     * @return Turnos do percentil pedido
+     */
+    public int getTurnPercentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int turns = 0; turns < turnHistogram.length; turns++) {
+            seen += turnHistogram[turns];
+            if (seen >= rank && seen > 0) {
+                return turns;
+            }
+        }
+        return 0;
+    }
+
+    public long getEventCount(GameEventType type) {
+        return eventCounts[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        String result = "Jogos: " + games + " (sem vencedor: " + gamesWithoutWinner + ")\n";
+        result += String.format("Turnos: média %.1f, mediana %d, p90 %d, p99 %d%n", getMeanTurns(),
+                getTurnPercentile(0.5), getTurnPercentile(0.9), getTurnPercentile(0.99));
+        result += "Vitórias por entrada:\n";
+        for (int i = 0; i < entrances.length; i++) {
+            result += String.format(" - %s: %d de %d jogadores (%.1f%%)%n", entrances[i], winsByEntrance[i],
+                    startsByEntrance[i], 100 * getWinRate(i));
+        }
+        result += "Acontecimentos por jogo:\n";
+        for (GameEventType type : GameEventType.values()) {
+            result += String.format(" - %s: %.2f%n", type, games == 0 ? 0.0 : (double) getEventCount(type) / games);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+package Game;
+
+import Collections.ListasIterador.Classes.ArrayUnorderedList;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Torneio de Monte Carlo: joga muitos jogos só com bots sobre o mesmo
+ * mapa, em paralelo num ForkJoinPool, e agrega os resultados para afinar
+ * a dificuldade do mapa.
+ * 
+ * O mapa e os enigmas são lidos uma vez e partilhados só para leitura;
+ * cada jogo tem o seu GameEngine em modo headless, a sua cópia do mapa e
+ * o seu GameRandom, com uma semente tirada da fonte do torneio. A
+ * divisão do trabalho não depende do número de threads, por isso a mesma
+ * semente dá sempre os mesmos resultados.
+ * 
+ * @author Rafael Oliveira e Francisco Gomes (Grupo 26)
+ * @version 1.0
+ */
+public class TournamentRunner {
+    /**
+     * Número de jogos abaixo do qual uma tarefa os joga seguidos em vez
+     * de se dividir.
+     */
+    private static final int GAMES_PER_TASK = 64;
+
+    private final MazeMap template;
+    private final ArrayUnorderedList<Enigma> enigmas;
+    private final Room[] entrances;
+    private int botsPerGame;
+    private int maxTurns;
+    private ForkJoinPool pool;
+    private GameReport report;
+    private Path journalDirectory;
+
+    /**
+     * Construtor do torneio sobre um mapa já carregado.
+     *
+     * @param template Mapa de partida, que não é alterado
+     * @param enigmas  Enigmas disponíveis
+     */
+    public TournamentRunner(MazeMap template, ArrayUnorderedList<Enigma> enigmas) {
+        this.template = template;
+        this.enigmas = enigmas;
+        this.botsPerGame = 2;
+        this.maxTurns = 1000;
+        this.pool = ForkJoinPool.commonPool();
+
+        ArrayUnorderedList<Room> found = new ArrayUnorderedList<>();
+        Iterator<Room> it = template.getRooms();
+        while (it.hasNext()) {
+            Room r = it.next();
+            if (r.getType().equals("ENTRANCE")) {
+                found.addToRear(r);
+            }
+        }
+        if (found.isEmpty() && template.getRooms().hasNext()) {
+            found.addToRear(template.getRooms().next());
+        }
+        this.entrances = new Room[found.size()];
+        int idx = 0;
+        for (Room r : found) {
+            entrances[idx++] = r;
+        }
+    }
+
+    /**
+     * Lê o mapa e os enigmas dos ficheiros JSON.
+     *
+     * @param mapFile    Ficheiro do mapa
+     * @param enigmaFile Ficheiro dos enigmas
+     * @return Torneio sobre esse mapa
+     */
+    public static TournamentRunner fromFiles(String mapFile, String enigmaFile) {
+        MazeMap map = new MazeMap();
+        DataLoader.loadMap(mapFile, map);
+        ArrayUnorderedList<Enigma> enigmas = new File(enigmaFile).exists()
+                ? DataLoader.loadEnigmas(enigmaFile) : new ArrayUnorderedList<>();
+        return new TournamentRunner(map, enigmas);
+    }
+
+    public void setBotsPerGame(int botsPerGame) {
+        this.botsPerGame = botsPerGame;
+    }
+
+    /**
+     * @param maxTurns Número máximo de turnos de cada jogo, maior que 0;
+     *                 sem limite, um jogo em que os bots não chegam ao
+     *                 tesouro nunca terminaria
+     */
+    public void setMaxTurns(int maxTurns) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("O limite de turnos tem de ser maior que 0: " + maxTurns);
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Escreve o resumo de cada jogo no relatório NDJSON à medida que os
+     * jogos terminam, pela ordem em que terminam.
+     *
+     * @param report Relatório de destino, ou null para não escrever
+     */
+    public void setReport(GameReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Escreve o diário de cada jogo num ficheiro game-N.gjnl da pasta
+     * indicada, que é criada se não existir.
+     *
+     * @param directory Pasta dos diários, ou null para não os escrever
+     * @throws IOException Se não for possível criar a pasta
+     */
+    public void setJournalDirectory(String directory) throws IOException {
+        if (directory == null) {
+            this.journalDirectory = null;
+            return;
+        }
+        this.journalDirectory = Files.createDirectories(Path.of(directory));
+    }
+
+    /**
+     * Joga um torneio.
+     *
+     * @param games Número de jogos
+     * @param seed  Semente dos números aleatórios
+     * @return Resultados agregados de todos os jogos
+     */
+    public TournamentResult run(int games, long seed) {
+        if (entrances.length == 0) {
+            throw new IllegalStateException("O mapa não tem salas");
+        }
+        return pool.invoke(new Games(0, games, new SplittableRandom(seed)));
+    }
+
+    private TournamentResult newResult() {
+        String[] ids = new String[entrances.length];
+        for (int i = 0; i < entrances.length; i++) {
+            ids[i] = entrances[i].getId();
+        }
+        return new TournamentResult(ids);
+    }
+
+    /**
+     * Joga um jogo e acumula os seus resultados.
+     */
+    private void playGame(int index, GameRandom random, TournamentResult result) {
+        GameEngine game = new GameEngine(template.copy(), enigmas,
+                (turn, type, player, room) -> result.recordEvent(type));
+        game.setRandom(random);
+        game.setMaxTurns(maxTurns);
+        GameJournal journal = null;
+        if (journalDirectory != null) {
+            try {
+                journal = new GameJournal(journalDirectory.resolve("game-" + index + ".gjnl").toString(),
+                        random.getSeed());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            game.setJournal(journal);
+        }
+
+        Player[] players = new Player[botsPerGame];
+        int[] startEntrance = new int[botsPerGame];
+        for (int i = 0; i < botsPerGame; i++) {
+            startEntrance[i] = random.players().nextInt(entrances.length);
+            players[i] = game.addPlayer("Bot " + (i + 1), true, entrances[startEntrance[i]]);
+            result.recordStart(startEntrance[i]);
+        }
+
+        try {
+            game.start();
+        } finally {
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        int winnerEntrance = -1;
+        for (int i = 0; i < botsPerGame; i++) {
+            if (players[i] == game.getWinner()) {
+                winnerEntrance = startEntrance[i];
+            }
+        }
+        result.recordGame(game.getTurnCount(), winnerEntrance);
+        if (report != null) {
+            report.writeGame(index, game);
+        }
+    }
+
+    /**
+     * Jogos de from (inclusive) a to (exclusive), divididos ao meio
+     * enquanto forem muitos. A metade da esquerda recebe um split da
+     * fonte aleatória e a da direita fica com ela.
+     */
+    private class Games extends RecursiveTask<TournamentResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        Games(int from, int to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Games left = new Games(from, middle, random.split());
+                left.fork();
+                TournamentResult result = new Games(middle, to, random).compute();
+                result.merge(left.join());
+                return result;
+            }
+            TournamentResult result = newResult();
+            for (int game = from; game < to; game++) {
+                playGame(game, new GameRandom(random.nextLong()), result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Corre um torneio a partir da linha de comandos.
+     *
+     * @param args Ficheiro do mapa, número de jogos, bots por jogo, limite
+     *             de turnos, semente, ficheiro do relatório NDJSON e pasta
+     *             dos diários, todos opcionais
+     * @throws IOException Se não for possível criar o relatório ou a
+     *                     pasta dos diários
+     */
+    public static void main(String[] args) throws IOException {
+        String mapFile = args.length > 0 ? args[0] : "src/Map/map.json";
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int bots = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int turns = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        String enigmaFile = new File(new File(mapFile).getParentFile(), "enigmas.json").getPath();
+        TournamentRunner runner = fromFiles(mapFile, enigmaFile);
+        runner.setBotsPerGame(bots);
+        runner.setMaxTurns(turns);
+        GameReport report = args.length > 5 ? new GameReport(args[5], false) : null;
+        runner.setReport(report);
+        if (args.length > 6) {
+            runner.setJournalDirectory(args[6]);
+        }
+
+        long start = System.nanoTime();
+        TournamentResult result;
+        try {
+            result = runner.run(games, seed);
+        } finally {
+            if (report != null) {
+                report.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("=== TORNEIO: " + mapFile + " (semente " + seed + ") ===");
+        System.out.print(result);
+        System.out.printf("%d jogos em %.2f s (%.0f jogos/s)%n", games, seconds, games / seconds);
+    }
+}